@@ -0,0 +1,201 @@
+package com.chuman.reactive.controller;
+
+import com.chuman.reactive.model.EmployeeDTO;
+import com.chuman.reactive.service.EmployeeService;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+//the /api/employees contract of the blocking api on webflux. nothing here blocks a thread, a request waiting on the
+//database holds a connection from the r2dbc pool and no event loop thread.
+@RestController
+@RequestMapping("/api/employees")
+public class EmployeeController {
+
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    static final int MAX_PAGE_SIZE = 1000;
+
+    private static final String ANY_TAG = "*";
+
+    private final EmployeeService employeeService;
+
+    public EmployeeController(EmployeeService employeeService) {
+        this.employeeService = employeeService;
+    }
+
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public Mono<EmployeeDTO> createEmployee(@RequestBody EmployeeDTO employee){
+        return employeeService.saveEmployee(employee);
+    }
+
+    //a json keyset page like the blocking api, or with Accept: application/x-ndjson every employee after the cursor,
+    //streamed with back-pressure from the socket down to the database cursor
+    @GetMapping
+    public Mono<ResponseEntity<Flux<EmployeeDTO>>> getAllEmployees(@RequestParam(value = "after", defaultValue = "0") long after,
+                                                                 @RequestParam(value = "limit", defaultValue = "100") int limit,
+                                                                 ServerHttpRequest request){
+        if (request.getHeaders().getAccept().contains(MediaType.APPLICATION_NDJSON)) {
+            return Mono.just(ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON)
+                    .body(employeeService.streamEmployees(after)));
+        }
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        return employeeService.getEmployeePage(after, pageSize).map(page -> {
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON);
+            if (page.getNextCursor() != null) {
+                String next = UriComponentsBuilder.fromUri(request.getURI())
+                        .replaceQueryParam("after", page.getNextCursor())
+                        .replaceQueryParam("limit", pageSize)
+                        .toUriString();
+                response.header(NEXT_CURSOR_HEADER, String.valueOf(page.getNextCursor()))
+                        .header(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"");
+            }
+            return response.body(Flux.fromIterable(page.getContent()));
+        });
+    }
+
+    //newline delimited json of the whole table, same as the blocking export
+    @GetMapping(value = "export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<EmployeeDTO> exportEmployees(){
+        return employeeService.streamEmployees(0);
+    }
+
+    @GetMapping("{id}")
+    public Mono<ResponseEntity<EmployeeDTO>> getEmployeeById(@PathVariable("id") long employeeId,
+                                                             @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch){
+        return employeeService.getEmployeeById(employeeId)
+                .map(employee -> {
+                    String etag = employeeTag(employee.getVersion());
+                    if (ifNoneMatch != null && matches(ifNoneMatch, etag)) {
+                        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).<EmployeeDTO>build();
+                    }
+                    return ResponseEntity.ok().eTag(etag).body(employee);
+                })
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    @PutMapping("{id}")
+    public Mono<ResponseEntity<EmployeeDTO>> updateEmployee(@PathVariable("id") long employeeId, @RequestBody EmployeeDTO employee,
+                                                            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch){
+        Long expectedVersion = null;
+        if (ifMatch != null && !ANY_TAG.equals(ifMatch.trim())) {
+            expectedVersion = ifMatchVersion(ifMatch);
+            if (expectedVersion == null) {
+                return Mono.just(ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build());
+            }
+        }
+        Long conditionVersion = expectedVersion;
+        return employeeService.getEmployeeById(employeeId)
+                .flatMap(savedEmployee -> {
+                    EmployeeDTO update = EmployeeDTO.builder()
+                            .id(savedEmployee.getId())
+                            .version(conditionVersion != null ? conditionVersion : savedEmployee.getVersion())
+                            .firstName(employee.getFirstName())
+                            .lastName(employee.getLastName())
+                            .email(employee.getEmail())
+                            .build();
+                    return employeeService.updateEmployee(update)
+                            .map(updateEmployee -> ResponseEntity.ok().eTag(employeeTag(updateEmployee.getVersion())).body(updateEmployee))
+                            .onErrorResume(OptimisticLockingFailureException.class, e -> Mono.just(ResponseEntity
+                                    .status(conditionVersion != null ? HttpStatus.PRECONDITION_FAILED : HttpStatus.CONFLICT)
+                                    .<EmployeeDTO>build()));
+                })
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    //only the supplied fields are written, one update statement and no select
+    @PatchMapping("{id}")
+    public Mono<ResponseEntity<Void>> patchEmployee(@PathVariable("id") long employeeId, @RequestBody EmployeeDTO employee,
+                                                    @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch){
+        Long expectedVersion = null;
+        if (ifMatch != null && !ANY_TAG.equals(ifMatch.trim())) {
+            expectedVersion = ifMatchVersion(ifMatch);
+            if (expectedVersion == null) {
+                return Mono.just(ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build());
+            }
+        }
+        Long conditionVersion = expectedVersion;
+        return employeeService.patchEmployee(employeeId, employee, expectedVersion)
+                .flatMap(updated -> updated ? Mono.just(ResponseEntity.noContent().<Void>build())
+                        : missingOrModified(employeeId, conditionVersion));
+    }
+
+    @DeleteMapping("{id}")
+    public Mono<ResponseEntity<String>> deleteEmployee(@PathVariable("id") long employeeId,
+                                                       @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch){
+        if (ifMatch != null && !ANY_TAG.equals(ifMatch.trim())) {
+            Long expectedVersion = ifMatchVersion(ifMatch);
+            if (expectedVersion == null) {
+                return missingOrModified(employeeId, null);
+            }
+            return employeeService.deleteEmployee(employeeId, expectedVersion)
+                    .flatMap(deleted -> deleted ? Mono.just(new ResponseEntity<>("Employee deleted Successfully", HttpStatus.OK))
+                            : missingOrModified(employeeId, expectedVersion));
+        }
+        return employeeService.deleteEmployee(employeeId)
+                .thenReturn(new ResponseEntity<>("Employee deleted Successfully", HttpStatus.OK));
+    }
+
+    //a conditional write that touched no row failed its precondition unless the row is gone
+    private <T> Mono<ResponseEntity<T>> missingOrModified(long employeeId, Long expectedVersion) {
+        if (expectedVersion == null) {
+            return Mono.just(ResponseEntity.notFound().build());
+        }
+        return employeeService.getEmployeeVersion(employeeId)
+                .map(version -> ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).<T>build())
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    //weak like the blocking api's tags, the version names the row and not the encoded bytes
+    private static String employeeTag(long version) {
+        return "W/\"" + version + "\"";
+    }
+
+    //If-None-Match may list several tags or *, compared weakly
+    private static boolean matches(String header, String etag) {
+        String opaqueTag = opaqueTag(etag);
+        for (String candidate : header.split(",")) {
+            String tag = candidate.trim();
+            if (ANY_TAG.equals(tag) || opaqueTag(tag).equals(opaqueTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String opaqueTag(String tag) {
+        return tag.startsWith("W/") ? tag.substring(2) : tag;
+    }
+
+    //If-Match must carry the single version tag the client last saw, null when it does not, weak tags included
+    private static Long ifMatchVersion(String header) {
+        String tag = opaqueTag(header.trim());
+        if (tag.length() > 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+            try {
+                return Long.parseLong(tag.substring(1, tag.length() - 1));
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+        return null;
+    }
+}
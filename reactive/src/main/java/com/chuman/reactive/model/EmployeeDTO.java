@@ -0,0 +1,40 @@
+package com.chuman.reactive.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+//same employees table layout and json shape as the blocking api
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table("employees")
+public class EmployeeDTO {
+
+    //assigned from employees_seq before insert, see EmployeeIdAllocator
+    @Id
+    @Column("id")
+    private long id;
+
+    @Column("first_name")
+    private String firstName;
+
+    @Column("last_name")
+    private String lastName;
+
+    @Column("email")
+    private String email;
+
+    //optimistic lock version and etag, 0 marks a row that was not inserted yet
+    @Version
+    @Column("version")
+    private long version;
+}
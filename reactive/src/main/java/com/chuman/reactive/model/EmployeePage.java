@@ -0,0 +1,16 @@
+package com.chuman.reactive.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+//one keyset page of employees, nextCursor is null on the last page
+@Getter
+@AllArgsConstructor
+public class EmployeePage {
+
+    private List<EmployeeDTO> content;
+
+    private Long nextCursor;
+}
@@ -0,0 +1,37 @@
+package com.chuman.reactive.repository;
+
+import com.chuman.reactive.model.EmployeeDTO;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface EmployeeRepository extends ReactiveCrudRepository<EmployeeDTO, Long> {
+
+    Mono<EmployeeDTO> findByEmail(String email);
+
+    //keyset page, limit is one more than the page size to detect a next page
+    @Query("select * from employees where id > :after order by id limit :limit")
+    Flux<EmployeeDTO> findPageAfter(@Param("after") long after, @Param("limit") int limit);
+
+    //rows are pulled as the subscriber requests them, so a slow client slows the read instead of buffering it
+    @Query("select * from employees where id > :after order by id")
+    Flux<EmployeeDTO> streamAfter(@Param("after") long after);
+
+    @Query("select version from employees where id = :id")
+    Mono<Long> findVersionById(@Param("id") long id);
+
+    //null fields are left as they are, a null version skips the optimistic check
+    @Modifying
+    @Query("update employees set first_name = coalesce(:firstName, first_name), last_name = coalesce(:lastName, last_name), "
+            + "email = coalesce(:email, email), version = version + 1 "
+            + "where id = :id and (:version is null or version = :version)")
+    Mono<Integer> patchEmployee(@Param("id") long id, @Param("firstName") String firstName, @Param("lastName") String lastName,
+                                @Param("email") String email, @Param("version") Long version);
+
+    @Modifying
+    @Query("delete from employees where id = :id and version = :version")
+    Mono<Integer> deleteByIdAndVersion(@Param("id") long id, @Param("version") long version);
+}
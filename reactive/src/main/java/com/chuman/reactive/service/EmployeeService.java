@@ -0,0 +1,27 @@
+package com.chuman.reactive.service;
+
+import com.chuman.reactive.model.EmployeeDTO;
+import com.chuman.reactive.model.EmployeePage;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface EmployeeService {
+
+    Mono<EmployeeDTO> saveEmployee(EmployeeDTO employees);
+
+    Mono<EmployeePage> getEmployeePage(long afterId, int limit);
+
+    Flux<EmployeeDTO> streamEmployees(long afterId);
+
+    Mono<EmployeeDTO> getEmployeeById(long id);
+
+    Mono<Long> getEmployeeVersion(long id);
+
+    Mono<EmployeeDTO> updateEmployee(EmployeeDTO updateEmployees);
+
+    Mono<Boolean> patchEmployee(long id, EmployeeDTO patch, Long expectedVersion);
+
+    Mono<Void> deleteEmployee(long id);
+
+    Mono<Boolean> deleteEmployee(long id, long expectedVersion);
+}
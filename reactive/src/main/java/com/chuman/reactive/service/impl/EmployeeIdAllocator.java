@@ -0,0 +1,71 @@
+package com.chuman.reactive.service.impl;
+
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Mono;
+
+//hands out ids from an employees_seq table laid out like the blocking api's, in blocks of the same size.
+//a read value v reserves the ids v - 49 to v like hibernate's pooled optimizer, so the ids follow the same scheme.
+//the first values of a fresh table are skipped, hibernate treats them as its initial block.
+@Component
+public class EmployeeIdAllocator {
+
+    static final int BLOCK_SIZE = 50;
+
+    private final DatabaseClient databaseClient;
+
+    private final TransactionalOperator transactionalOperator;
+
+    //guarded by this
+    private long next = 1;
+
+    private long hi;
+
+    private Mono<Long> reserving;
+
+    public EmployeeIdAllocator(DatabaseClient databaseClient, TransactionalOperator transactionalOperator) {
+        this.databaseClient = databaseClient;
+        this.transactionalOperator = transactionalOperator;
+    }
+
+    public Mono<Long> nextId() {
+        return Mono.defer(() -> {
+            synchronized (this) {
+                if (next <= hi) {
+                    return Mono.just(next++);
+                }
+                //one reservation in flight, concurrent callers wait for it and then retry
+                if (reserving == null) {
+                    reserving = reserveBlock()
+                            .doOnNext(this::useBlock)
+                            .doFinally(signal -> clearReserving())
+                            .cache();
+                }
+                return reserving.then(nextId());
+            }
+        });
+    }
+
+    private Mono<Long> reserveBlock() {
+        Mono<Long> reserve = databaseClient.sql("select next_val from employees_seq for update")
+                .map(row -> row.get(0, Long.class))
+                .one()
+                .flatMap(value -> databaseClient.sql("update employees_seq set next_val = :next")
+                        .bind("next", value + BLOCK_SIZE)
+                        .fetch()
+                        .rowsUpdated()
+                        .thenReturn(value));
+        return transactionalOperator.transactional(reserve)
+                .flatMap(value -> value < BLOCK_SIZE ? reserveBlock() : Mono.just(value));
+    }
+
+    private synchronized void useBlock(long value) {
+        hi = value;
+        next = value - BLOCK_SIZE + 1;
+    }
+
+    private synchronized void clearReserving() {
+        reserving = null;
+    }
+}
@@ -0,0 +1,92 @@
+package com.chuman.reactive.service.impl;
+
+import com.chuman.reactive.exception.ResourceNotFoundException;
+import com.chuman.reactive.model.EmployeeDTO;
+import com.chuman.reactive.model.EmployeePage;
+import com.chuman.reactive.repository.EmployeeRepository;
+import com.chuman.reactive.service.EmployeeService;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+@Service
+public class EmployeeServiceImpl implements EmployeeService {
+
+    private final EmployeeRepository employeeRepository;
+
+    private final EmployeeIdAllocator idAllocator;
+
+    public EmployeeServiceImpl(EmployeeRepository employeeRepository, EmployeeIdAllocator idAllocator) {
+        this.employeeRepository = employeeRepository;
+        this.idAllocator = idAllocator;
+    }
+
+    @Override
+    public Mono<EmployeeDTO> saveEmployee(EmployeeDTO employees) {
+        return employeeRepository.findByEmail(employees.getEmail())
+                .flatMap(existing -> Mono.<EmployeeDTO>error(
+                        new ResourceNotFoundException("Employee already exit with given email "+employees.getEmail())))
+                .switchIfEmpty(Mono.defer(() -> idAllocator.nextId().flatMap(id -> {
+                    employees.setId(id);
+                    employees.setVersion(0);
+                    return employeeRepository.save(employees);
+                })))
+                //created concurrently, the unique constraint caught it
+                .onErrorMap(DataIntegrityViolationException.class,
+                        e -> new ResourceNotFoundException("Employee already exit with given email "+employees.getEmail(), e));
+    }
+
+    @Override
+    public Mono<EmployeePage> getEmployeePage(long afterId, int limit) {
+        //fetch one extra row to know whether another page exists
+        return employeeRepository.findPageAfter(afterId, limit + 1).collectList().map(employees -> {
+            if (employees.size() > limit) {
+                List<EmployeeDTO> content = employees.subList(0, limit);
+                return new EmployeePage(content, content.get(limit - 1).getId());
+            }
+            return new EmployeePage(employees, null);
+        });
+    }
+
+    @Override
+    public Flux<EmployeeDTO> streamEmployees(long afterId) {
+        return employeeRepository.streamAfter(afterId);
+    }
+
+    @Override
+    public Mono<EmployeeDTO> getEmployeeById(long id) {
+        return employeeRepository.findById(id);
+    }
+
+    @Override
+    public Mono<Long> getEmployeeVersion(long id) {
+        return employeeRepository.findVersionById(id);
+    }
+
+    //version checked update, a stale version fails with OptimisticLockingFailureException
+    @Override
+    public Mono<EmployeeDTO> updateEmployee(EmployeeDTO updateEmployees) {
+        return employeeRepository.save(updateEmployees);
+    }
+
+    @Override
+    public Mono<Boolean> patchEmployee(long id, EmployeeDTO patch, Long expectedVersion) {
+        return employeeRepository.patchEmployee(id, patch.getFirstName(), patch.getLastName(), patch.getEmail(), expectedVersion)
+                .map(updated -> updated > 0)
+                .onErrorMap(DataIntegrityViolationException.class, e -> patch.getEmail() != null
+                        ? new ResourceNotFoundException("Employee already exit with given email "+patch.getEmail(), e) : e);
+    }
+
+    @Override
+    public Mono<Void> deleteEmployee(long id) {
+        return employeeRepository.deleteById(id);
+    }
+
+    @Override
+    public Mono<Boolean> deleteEmployee(long id, long expectedVersion) {
+        return employeeRepository.deleteByIdAndVersion(id, expectedVersion).map(deleted -> deleted > 0);
+    }
+}
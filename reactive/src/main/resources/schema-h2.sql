@@ -0,0 +1,16 @@
+create table if not exists employees (
+    id bigint not null,
+    first_name varchar(255) not null,
+    last_name varchar(255) not null,
+    email varchar(255) not null,
+    version bigint not null,
+    primary key (id),
+    constraint uk_employees_email unique (email)
+);
+
+-- same layout as the blocking api's employees_seq table, see EmployeeIdAllocator
+create table if not exists employees_seq (
+    next_val bigint
+);
+
+insert into employees_seq (next_val) select 1 from dual where not exists (select * from employees_seq);
@@ -0,0 +1,22 @@
+-- the reactive api's own database, ems_reactive. it never writes to the blocking api's ems: that api caches employees
+-- in process (the employees cache, the hibernate second-level cache, the search index, the change feed) and would
+-- keep serving rows changed behind its back. same layout as the blocking api's schema-mysql.sql
+create table if not exists employees (
+    id bigint not null,
+    first_name varchar(255) not null,
+    last_name varchar(255) not null,
+    email varchar(255) not null,
+    version bigint not null,
+    created_at datetime(6) not null default current_timestamp(6),
+    updated_at datetime(6) not null default current_timestamp(6) on update current_timestamp(6),
+    primary key (id),
+    constraint uk_employees_email unique (email),
+    index idx_employees_updated_at (updated_at, id)
+) engine = InnoDB;
+
+-- same layout as the blocking api's employees_seq table, see EmployeeIdAllocator
+create table if not exists employees_seq (
+    next_val bigint
+) engine = InnoDB;
+
+insert into employees_seq (next_val) select 1 from dual where not exists (select * from employees_seq);
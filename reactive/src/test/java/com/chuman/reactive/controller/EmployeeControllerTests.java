@@ -0,0 +1,156 @@
+package com.chuman.reactive.controller;
+
+import com.chuman.reactive.model.EmployeeDTO;
+import com.chuman.reactive.model.EmployeePage;
+import com.chuman.reactive.service.EmployeeService;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@WebFluxTest(EmployeeController.class)
+class EmployeeControllerTests {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @MockBean
+    private EmployeeService employeeService;
+
+    @Test
+    void givenEmployeeObject_whenCreateEmployee_thenReturnSavedEmployee(){
+        //given
+        EmployeeDTO employee = employee(0L, "chuman", "panda", "chuman.panda@gmail.com");
+        given(employeeService.saveEmployee(ArgumentMatchers.any(EmployeeDTO.class)))
+                .willAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+        //when
+        WebTestClient.ResponseSpec responce = webTestClient.post().uri("/api/employees")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(employee)
+                .exchange();
+        //then
+        responce.expectStatus().isCreated()
+                .expectBody()
+                .jsonPath("$.firstName").isEqualTo("chuman")
+                .jsonPath("$.lastName").isEqualTo("panda")
+                .jsonPath("$.email").isEqualTo("chuman.panda@gmail.com");
+    }
+
+    @Test
+    void givenMorePages_whenGetAllEmployees_thenReturnPageWithNextCursor(){
+        //given
+        given(employeeService.getEmployeePage(0L, 2)).willReturn(Mono.just(new EmployeePage(List.of(
+                employee(1L, "chuman", "panda", "chuman.panda@gmail.com"),
+                employee(2L, "kalia", "kumar", "kalia.kumar@gmail.com")), 2L)));
+        //when
+        WebTestClient.ResponseSpec responce = webTestClient.get().uri("/api/employees?limit=2").exchange();
+        //then
+        responce.expectStatus().isOk()
+                .expectHeader().valueEquals(EmployeeController.NEXT_CURSOR_HEADER, "2")
+                .expectHeader().value(HttpHeaders.LINK, link -> assertThat(link).contains("after=2").contains("rel=\"next\""))
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(2)
+                .jsonPath("$[1].email").isEqualTo("kalia.kumar@gmail.com");
+    }
+
+    @Test
+    void givenNdjsonAccept_whenGetAllEmployees_thenStreamEveryEmployee(){
+        //given
+        given(employeeService.streamEmployees(0L)).willReturn(Flux.just(
+                employee(1L, "chuman", "panda", "chuman.panda@gmail.com"),
+                employee(2L, "kalia", "kumar", "kalia.kumar@gmail.com")));
+        //when
+        WebTestClient.ResponseSpec responce = webTestClient.get().uri("/api/employees")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange();
+        //then
+        responce.expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .expectBodyList(EmployeeDTO.class).hasSize(2);
+        verify(employeeService, never()).getEmployeePage(ArgumentMatchers.anyLong(), ArgumentMatchers.anyInt());
+    }
+
+    @Test
+    void givenEmployeeId_whenGetEmployeeById_thenReturnEmployeeWithEtag(){
+        //given
+        given(employeeService.getEmployeeById(1L)).willReturn(Mono.just(employee(1L, "chuman", "panda", "chuman.panda@gmail.com")));
+        //when
+        WebTestClient.ResponseSpec responce = webTestClient.get().uri("/api/employees/1").exchange();
+        //then
+        responce.expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "W/\"3\"")
+                .expectBody().jsonPath("$.email").isEqualTo("chuman.panda@gmail.com");
+    }
+
+    @Test
+    void givenCurrentEtag_whenGetEmployeeById_thenReturnNotModified(){
+        //given
+        given(employeeService.getEmployeeById(1L)).willReturn(Mono.just(employee(1L, "chuman", "panda", "chuman.panda@gmail.com")));
+        //when
+        WebTestClient.ResponseSpec responce = webTestClient.get().uri("/api/employees/1")
+                .header(HttpHeaders.IF_NONE_MATCH, "\"3\"")
+                .exchange();
+        //then
+        responce.expectStatus().isNotModified();
+    }
+
+    @Test
+    void givenInvalidEmployeeId_whenGetEmployeeById_thenReturnEmpty(){
+        //given
+        given(employeeService.getEmployeeById(1L)).willReturn(Mono.empty());
+        //when
+        WebTestClient.ResponseSpec responce = webTestClient.get().uri("/api/employees/1").exchange();
+        //then
+        responce.expectStatus().isNotFound();
+    }
+
+    @Test
+    void givenStaleIfMatch_whenUpdateEmployee_thenReturnPreconditionFailed(){
+        //given
+        given(employeeService.getEmployeeById(1L)).willReturn(Mono.just(employee(1L, "chuman", "panda", "chuman.panda@gmail.com")));
+        given(employeeService.updateEmployee(ArgumentMatchers.any(EmployeeDTO.class)))
+                .willReturn(Mono.error(new OptimisticLockingFailureException("stale")));
+        //when
+        WebTestClient.ResponseSpec responce = webTestClient.put().uri("/api/employees/1")
+                .header(HttpHeaders.IF_MATCH, "\"2\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(employee(0L, "kalia", "kumar", "kalia.kumar@gmail.com"))
+                .exchange();
+        //then
+        responce.expectStatus().isEqualTo(412);
+    }
+
+    @Test
+    void givenEmployeeId_whenDeleteEmployee_thenReturn200(){
+        //given
+        given(employeeService.deleteEmployee(1L)).willReturn(Mono.empty());
+        //when
+        WebTestClient.ResponseSpec responce = webTestClient.delete().uri("/api/employees/1").exchange();
+        //then
+        responce.expectStatus().isOk()
+                .expectBody(String.class).isEqualTo("Employee deleted Successfully");
+    }
+
+    private static EmployeeDTO employee(long id, String firstName, String lastName, String email){
+        return EmployeeDTO.builder().id(id)
+                .firstName(firstName)
+                .lastName(lastName)
+                .email(email)
+                .version(id == 0 ? 0 : 3)
+                .build();
+    }
+}
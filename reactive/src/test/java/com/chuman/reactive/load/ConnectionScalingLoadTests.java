@@ -0,0 +1,276 @@
+package com.chuman.reactive.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+//throughput, latency and server memory with a large number of open connections, run with mvn -f reactive/pom.xml -Pload-test test.
+//by default it measures this webflux app on the local profile's in-memory database. set employee.load.target to the base
+//url of the blocking api started on the load profile to take the same measurement there, the two result files side by
+//side are the comparison. server heap and live threads are sampled from /actuator/metrics while the traffic runs.
+@Tag("load")
+@ActiveProfiles({"local", "load"})
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class ConnectionScalingLoadTests {
+
+    private static final String HEAP_USED = "/actuator/metrics/jvm.memory.used?tag=area:heap";
+
+    private static final String LIVE_THREADS = "/actuator/metrics/jvm.threads.live";
+
+    private static final int LIST_PERCENT = 20;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${employee.load.seed}")
+    private int seed;
+
+    @Value("${employee.load.connections}")
+    private int connections;
+
+    @Value("${employee.load.warmup-seconds}")
+    private int warmupSeconds;
+
+    @Value("${employee.load.duration-seconds}")
+    private int durationSeconds;
+
+    @Value("${employee.load.target:}")
+    private String target;
+
+    private final AtomicLong emails = new AtomicLong();
+
+    @Test
+    void givenManyOpenConnections_whenReadTraffic_thenNoErrors() throws Exception {
+        //given or setup
+        ExecutorService executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .executor(executor)
+                .build();
+        try {
+            long[] seeded = seedEmployees(client);
+            run(client, seeded, warmupSeconds);
+            //when action
+            LoadResult result = run(client, seeded, durationSeconds);
+            //then
+            Properties measured = result.toProperties();
+            Path results = Paths.get("target", "connection-scaling-" + (target.isEmpty() ? "reactive" : "target") + ".properties");
+            Files.createDirectories(results.getParent());
+            try (OutputStream out = Files.newOutputStream(results)) {
+                measured.store(out, "ConnectionScalingLoadTests " + baseUrl() + " connections=" + connections
+                        + " duration=" + durationSeconds + "s");
+            }
+            System.out.println(result.summary(baseUrl()));
+            assertThat(result.errors).as("failed or non 2xx responses").isZero();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private long[] seedEmployees(HttpClient client) throws IOException, InterruptedException {
+        long[] ids = new long[seed];
+        for (int i = 0; i < seed; i++) {
+            HttpResponse<String> response = client.send(post(newEmployee()), HttpResponse.BodyHandlers.ofString());
+            assertThat(response.statusCode()).isEqualTo(201);
+            ids[i] = objectMapper.readTree(response.body()).get("id").asLong();
+        }
+        return ids;
+    }
+
+    //every connection is one client that sends its next request as soon as the last one answered
+    private LoadResult run(HttpClient client, long[] seeded, int seconds) throws Exception {
+        LoadResult result = new LoadResult(seconds);
+        long deadline = System.nanoTime() + Duration.ofSeconds(seconds).toNanos();
+        ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor();
+        sampler.scheduleAtFixedRate(() -> result.sample(metric(client, HEAP_USED), metric(client, LIVE_THREADS)),
+                0, 1, TimeUnit.SECONDS);
+        try {
+            List<CompletableFuture<Void>> clients = new ArrayList<>();
+            for (int i = 0; i < connections; i++) {
+                clients.add(drive(client, seeded, deadline, result));
+            }
+            CompletableFuture.allOf(clients.toArray(new CompletableFuture[0])).get(seconds + 60L, TimeUnit.SECONDS);
+        } finally {
+            sampler.shutdownNow();
+        }
+        return result;
+    }
+
+    private CompletableFuture<Void> drive(HttpClient client, long[] seeded, long deadline, LoadResult result) {
+        if (System.nanoTime() >= deadline) {
+            return CompletableFuture.completedFuture(null);
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long id = seeded[random.nextInt(seeded.length)];
+        HttpRequest request = random.nextInt(100) < LIST_PERCENT
+                ? get("/api/employees?after=" + id + "&limit=100")
+                : get("/api/employees/" + id);
+        long start = System.nanoTime();
+        return client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .handle((response, failure) -> {
+                    if (failure != null || response.statusCode() / 100 != 2) {
+                        result.error();
+                    } else {
+                        result.record(System.nanoTime() - start);
+                    }
+                    return null;
+                })
+                .thenCompose(ignored -> drive(client, seeded, deadline, result));
+    }
+
+    //a failed sample is skipped, the server is busy and the next one will do
+    private double metric(HttpClient client, String path) {
+        try {
+            HttpResponse<String> response = client.send(get(path), HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                return Double.NaN;
+            }
+            JsonNode measurements = objectMapper.readTree(response.body()).get("measurements");
+            return measurements.get(0).get("value").asDouble();
+        } catch (IOException e) {
+            return Double.NaN;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Double.NaN;
+        }
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(uri(path)).timeout(Duration.ofSeconds(30)).GET().build();
+    }
+
+    private HttpRequest post(String body) {
+        return HttpRequest.newBuilder(uri("/api/employees"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private URI uri(String path) {
+        return URI.create(baseUrl() + path);
+    }
+
+    private String baseUrl() {
+        if (target.isEmpty()) {
+            return "http://localhost:" + port;
+        }
+        return target.endsWith("/") ? target.substring(0, target.length() - 1) : target;
+    }
+
+    private String newEmployee() {
+        long n = emails.incrementAndGet();
+        return objectMapper.createObjectNode()
+                .put("firstName", "scale" + n)
+                .put("lastName", "employee")
+                .put("email", "scale" + n + "-" + System.nanoTime() + "@example.com")
+                .toString();
+    }
+
+    private static final class LoadResult {
+
+        private final int seconds;
+
+        //guarded by this
+        private long[] latencies = new long[4096];
+
+        private int size;
+
+        private long errors;
+
+        private double peakHeapBytes;
+
+        private double peakThreads;
+
+        private LoadResult(int seconds) {
+            this.seconds = seconds;
+        }
+
+        synchronized void record(long nanos) {
+            if (size == latencies.length) {
+                latencies = Arrays.copyOf(latencies, size * 2);
+            }
+            latencies[size++] = nanos;
+        }
+
+        synchronized void error() {
+            errors++;
+        }
+
+        synchronized void sample(double heapBytes, double threads) {
+            if (!Double.isNaN(heapBytes)) {
+                peakHeapBytes = Math.max(peakHeapBytes, heapBytes);
+            }
+            if (!Double.isNaN(threads)) {
+                peakThreads = Math.max(peakThreads, threads);
+            }
+        }
+
+        synchronized Properties toProperties() {
+            long[] sorted = Arrays.copyOf(latencies, size);
+            Arrays.sort(sorted);
+            Properties properties = new Properties();
+            properties.setProperty("throughput.ops-per-second", format((double) size / seconds));
+            properties.setProperty("p50.ms", format(percentile(sorted, 0.50)));
+            properties.setProperty("p99.ms", format(percentile(sorted, 0.99)));
+            properties.setProperty("errors", String.valueOf(errors));
+            properties.setProperty("server.heap.peak.mb", format(peakHeapBytes / (1024 * 1024)));
+            properties.setProperty("server.threads.peak", format(peakThreads));
+            return properties;
+        }
+
+        String summary(String baseUrl) {
+            Properties properties = toProperties();
+            StringBuilder summary = new StringBuilder("connection scaling result for " + baseUrl + " over " + seconds + "s");
+            properties.stringPropertyNames().stream().sorted()
+                    .forEach(key -> summary.append("\n  ").append(key).append(" = ").append(properties.getProperty(key)));
+            return summary.toString();
+        }
+
+        private static double percentile(long[] sorted, double percentile) {
+            if (sorted.length == 0) {
+                return Double.NaN;
+            }
+            int index = (int) Math.ceil(percentile * sorted.length) - 1;
+            return sorted[Math.max(0, index)] / 1_000_000.0;
+        }
+
+        private static String format(double value) {
+            return String.format(Locale.ROOT, "%.2f", value);
+        }
+    }
+}
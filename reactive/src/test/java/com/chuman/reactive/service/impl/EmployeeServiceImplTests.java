@@ -0,0 +1,55 @@
+package com.chuman.reactive.service.impl;
+
+import com.chuman.reactive.model.EmployeeDTO;
+import com.chuman.reactive.service.EmployeeService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+//against the local profile's in-memory database
+@ActiveProfiles("local")
+@SpringBootTest
+class EmployeeServiceImplTests {
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Test
+    void givenEmployee_whenDeleteEmployee_thenRemoveRow(){
+        //given
+        EmployeeDTO employee = employeeService.saveEmployee(employee("chuman.panda@gmail.com")).block();
+        //when
+        employeeService.deleteEmployee(employee.getId()).block();
+        //then
+        assertThat(employeeService.getEmployeeById(employee.getId()).blockOptional()).isEmpty();
+    }
+
+    @Test
+    void givenStaleVersion_whenDeleteEmployee_thenKeepRow(){
+        //given
+        EmployeeDTO employee = employeeService.saveEmployee(employee("kalia.kumar@gmail.com")).block();
+        //when
+        Boolean deleted = employeeService.deleteEmployee(employee.getId(), employee.getVersion() + 1).block();
+        //then
+        assertThat(deleted).isFalse();
+        assertThat(employeeService.getEmployeeById(employee.getId()).blockOptional()).isPresent();
+    }
+
+    @Test
+    void givenCurrentVersion_whenDeleteEmployee_thenRemoveRow(){
+        //given
+        EmployeeDTO employee = employeeService.saveEmployee(employee("rohit.sharma@gmail.com")).block();
+        //when
+        Boolean deleted = employeeService.deleteEmployee(employee.getId(), employee.getVersion()).block();
+        //then
+        assertThat(deleted).isTrue();
+        assertThat(employeeService.getEmployeeById(employee.getId()).blockOptional()).isEmpty();
+    }
+
+    private static EmployeeDTO employee(String email) {
+        return EmployeeDTO.builder().firstName("chuman").lastName("panda").email(email).build();
+    }
+}
@@ -0,0 +1,59 @@
+#!/usr/bin/env bash
+# time-to-first-200 on /api/employees without docker: the boot jar laid out the way the Dockerfile does it, started on
+# the in-memory H2 of the cds-training profile, once with -Xshare:off and once with the AppCDS archive.
+# build the jar first with the cds-training profile, it also copies the H2 driver:
+#   mvn -B -Pcds-training package && scripts/startup-time-local.sh
+# append the output to startup-times.txt to keep a record across changes.
+set -euo pipefail
+
+JAR=${JAR:-target/spring-boot-testing.jar}
+H2_DIR=${H2_DIR:-target/cds-training}
+WORK_DIR=${WORK_DIR:-target/startup-time}
+PORT=${PORT:-8088}
+TIMEOUT_SECONDS=${TIMEOUT_SECONDS:-120}
+
+# same layout as the Dockerfile, the application classes in a plain jar so cds accepts the class path
+rm -rf "${WORK_DIR}"
+mkdir -p "${WORK_DIR}/layers" "${WORK_DIR}/h2"
+java -Djarmode=layertools -jar "${JAR}" extract --destination "${WORK_DIR}/layers"
+cp "${H2_DIR}"/*.jar "${WORK_DIR}/h2/"
+cd "${WORK_DIR}"
+mkdir app
+for layer in dependencies snapshot-dependencies application; do
+    cp -r "layers/${layer}/." app/
+done
+(cd app/BOOT-INF/classes && jar cf ../../application.jar .)
+rm -rf app/BOOT-INF/classes layers
+CLASS_PATH="app/application.jar:app/BOOT-INF/lib/*:h2/*"
+
+# training run and dump, on the class path the timed runs use
+java -XX:DumpLoadedClassList=app.classlist -Dspring.profiles.active=cds-training \
+    -cp "${CLASS_PATH}" com.chuman.SpringBootTestingApplication > training.log
+java -Xshare:dump -XX:SharedClassListFile=app.classlist -XX:SharedArchiveFile=app.jsa \
+    -cp "${CLASS_PATH}" > dump.log
+
+time_to_first_200() {
+    local label=$1
+    shift
+    local start end pid deadline
+    start=$(date +%s%N)
+    java "$@" -Dspring.profiles.active=cds-training -Demployee.startup.training-run=false -Dserver.port="${PORT}" \
+        -cp "${CLASS_PATH}" com.chuman.SpringBootTestingApplication > "${label}.log" 2>&1 &
+    pid=$!
+    deadline=$((start + TIMEOUT_SECONDS * 1000000000))
+    until [ "$(curl -s -o /dev/null -w '%{http_code}' "http://localhost:${PORT}/api/employees")" = "200" ]; do
+        if [ "$(date +%s%N)" -gt "${deadline}" ] || ! kill -0 "${pid}" 2> /dev/null; then
+            echo "no 200 from /api/employees within ${TIMEOUT_SECONDS}s, see ${WORK_DIR}/${label}.log" >&2
+            kill "${pid}" 2> /dev/null || true
+            exit 1
+        fi
+        sleep 0.05
+    done
+    end=$(date +%s%N)
+    kill "${pid}"
+    wait "${pid}" || true
+    echo "$(date -u +%Y-%m-%dT%H:%M:%SZ) local-h2 ${label} time_to_first_200_ms=$(((end - start) / 1000000))"
+}
+
+time_to_first_200 no-cds -Xshare:off
+time_to_first_200 cds -Xshare:auto -XX:SharedArchiveFile=app.jsa
@@ -0,0 +1,27 @@
+#!/usr/bin/env bash
+# time-to-first-200 on /api/employees for the docker image, measured from `docker run` to the first 200.
+# extra arguments go to docker run, e.g. the datasource for the prod profile:
+#   scripts/startup-time.sh -e SPRING_DATASOURCE_URL=jdbc:mysql://db:3306/ems --network ems
+# append the output to startup-times.txt to keep a record across changes.
+set -euo pipefail
+
+IMAGE=${IMAGE:-spring-boot-testing}
+PORT=${PORT:-8088}
+TIMEOUT_SECONDS=${TIMEOUT_SECONDS:-120}
+
+start=$(date +%s%N)
+container=$(docker run -d -p "${PORT}:8088" -e LAZY_INIT="${LAZY_INIT:-false}" "$@" "${IMAGE}")
+trap 'docker rm -f "${container}" > /dev/null' EXIT
+
+deadline=$((start + TIMEOUT_SECONDS * 1000000000))
+until [ "$(curl -s -o /dev/null -w '%{http_code}' "http://localhost:${PORT}/api/employees")" = "200" ]; do
+    if [ "$(date +%s%N)" -gt "${deadline}" ]; then
+        echo "no 200 from /api/employees within ${TIMEOUT_SECONDS}s" >&2
+        docker logs "${container}" >&2
+        exit 1
+    fi
+    sleep 0.05
+done
+end=$(date +%s%N)
+
+echo "$(date -u +%Y-%m-%dT%H:%M:%SZ) ${IMAGE} lazy_init=${LAZY_INIT:-false} time_to_first_200_ms=$(((end - start) / 1000000))"
@@ -0,0 +1,83 @@
+package com.chuman.benchmark;
+
+import com.chuman.model.EmployeeDTO;
+import com.chuman.repository.EmployeeRepository;
+import com.chuman.repository.EmployeeTombstoneRepository;
+import com.chuman.service.impl.EmailIndex;
+import com.chuman.service.impl.EmployeeBatchWriter;
+import com.chuman.service.impl.EmployeeChangeFeed;
+import com.chuman.service.impl.EmployeeQueryCache;
+import com.chuman.service.impl.EmployeeSearchIndex;
+import com.chuman.service.impl.EmployeeServiceImpl;
+import com.chuman.service.impl.EmployeeTombstones;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+//fixtures shared by the benchmarks
+final class Benchmarks {
+
+    private static final String[] FIRST_NAMES = {"chuman", "kalia", "ramesh", "suresh", "anita", "priya", "rahul", "sneha"};
+
+    private static final String[] LAST_NAMES = {"panda", "kumar", "sahoo", "das", "mishra", "patel", "rao", "singh"};
+
+    private Benchmarks() {
+    }
+
+    static EmployeeDTO employee(long n) {
+        return EmployeeDTO.builder()
+                .firstName(FIRST_NAMES[(int) (n % FIRST_NAMES.length)] + n)
+                .lastName(LAST_NAMES[(int) (n / FIRST_NAMES.length % LAST_NAMES.length)])
+                .email("employee" + n + "@example.com")
+                .build();
+    }
+
+    static List<EmployeeDTO> employees(int count) {
+        List<EmployeeDTO> employees = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            EmployeeDTO employee = employee(i);
+            employee.setId(i + 1);
+            employees.add(employee);
+        }
+        return employees;
+    }
+
+    //the service as spring wires it, minus the proxies: no transactions and no @Cacheable
+    static EmployeeServiceImpl service(EmployeeRepository repository, boolean emailIndex, boolean searchIndex) {
+        EmailIndex emails = new EmailIndex(repository, emailIndex, 1_000_000, 0.01);
+        EmployeeSearchIndex search = new EmployeeSearchIndex(repository, searchIndex);
+        EmployeeBatchWriter batchWriter = new EmployeeBatchWriter(repository) {
+            @Override
+            public List<EmployeeDTO> insertChunk(List<EmployeeDTO> employees) {
+                employees.forEach(repository::save);
+                return employees;
+            }
+        };
+        EmployeeQueryCache queryCache = new EmployeeQueryCache(null) {
+            @Override
+            public void evictNativeQueries() {
+            }
+        };
+        //no benchmark deletes or syncs, so nothing may reach the tombstone table
+        EmployeeTombstoneRepository tombstoneRepository = (EmployeeTombstoneRepository) Proxy.newProxyInstance(
+                EmployeeTombstoneRepository.class.getClassLoader(), new Class<?>[]{EmployeeTombstoneRepository.class},
+                (proxy, method, args) -> {
+                    throw new UnsupportedOperationException(method.getName() + " is not stubbed");
+                });
+        EmployeeTombstones tombstones = new EmployeeTombstones(tombstoneRepository, Duration.ofDays(30), Duration.ofSeconds(5),
+                Duration.ofHours(1));
+        EmployeeServiceImpl service = new EmployeeServiceImpl(repository, batchWriter, emails, search, queryCache,
+                new EmployeeChangeFeed(10_000), tombstones);
+        emails.warm();
+        search.warm();
+        return service;
+    }
+
+    static void seed(EmployeeRepository repository, int count) {
+        for (int i = 0; i < count; i++) {
+            repository.save(employee(i));
+        }
+    }
+}
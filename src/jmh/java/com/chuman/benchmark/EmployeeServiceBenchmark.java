@@ -0,0 +1,103 @@
+package com.chuman.benchmark;
+
+import com.chuman.model.EmployeeDTO;
+import com.chuman.model.EmployeePage;
+import com.chuman.model.EmployeeSearchPage;
+import com.chuman.model.EmployeeSummary;
+import com.chuman.repository.EmployeeRepository;
+import com.chuman.service.impl.EmployeeServiceImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+//EmployeeServiceImpl over the in-memory repository. queryMicros models the database round trip,
+//so the email index shows up as the select it saves on every create.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EmployeeServiceBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Create {
+
+        @Param({"true", "false"})
+        boolean emailIndex;
+
+        @Param({"0", "200"})
+        int queryMicros;
+
+        EmployeeServiceImpl service;
+
+        long next;
+
+        //a fresh table per iteration so the map does not grow for the whole run
+        @Setup(Level.Iteration)
+        public void setup() {
+            EmployeeRepository repository = InMemoryEmployeeRepository.create(queryMicros);
+            Benchmarks.seed(repository, 10_000);
+            service = Benchmarks.service(repository, emailIndex, false);
+            next = 10_000;
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Read {
+
+        @Param({"10000", "1000000"})
+        int employees;
+
+        EmployeeServiceImpl service;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            EmployeeRepository repository = InMemoryEmployeeRepository.create(0);
+            Benchmarks.seed(repository, employees);
+            service = Benchmarks.service(repository, false, true);
+        }
+
+        long randomId() {
+            return ThreadLocalRandom.current().nextLong(1, employees + 1);
+        }
+    }
+
+    @Benchmark
+    public EmployeeDTO saveEmployee(Create state) {
+        return state.service.saveEmployee(Benchmarks.employee(state.next++));
+    }
+
+    @Benchmark
+    public Optional<EmployeeSummary> getEmployeeSummary(Read state) {
+        return state.service.getEmployeeSummary(state.randomId());
+    }
+
+    @Benchmark
+    public EmployeePage getEmployeePage(Read state) {
+        return state.service.getEmployeePage(state.randomId(), 100);
+    }
+
+    //in-memory prefix index, the 1M parameter is the target size for typeahead latency
+    @Benchmark
+    public EmployeeSearchPage searchEmployees(Read state) {
+        return state.service.searchEmployees("kal", 0, 20);
+    }
+
+    @Benchmark
+    public EmployeeSearchPage searchEmployeesFullName(Read state) {
+        return state.service.searchEmployees("kalia1 pan", 0, 20);
+    }
+}
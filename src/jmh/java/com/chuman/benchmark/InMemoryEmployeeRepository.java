@@ -0,0 +1,162 @@
+package com.chuman.benchmark;
+
+import com.chuman.model.EmployeeDTO;
+import com.chuman.model.EmployeeSummary;
+import com.chuman.repository.EmployeeRepository;
+import org.springframework.data.domain.Pageable;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Collectors;
+
+//map backed stand-in for the repository methods the service calls, so benchmarks measure the service and not mysql.
+//queryMicros parks every call to model a database round trip. methods the service does not use throw.
+public final class InMemoryEmployeeRepository {
+
+    private final ConcurrentSkipListMap<Long, EmployeeDTO> employees = new ConcurrentSkipListMap<>();
+
+    private final Map<String, Long> idsByEmail = new ConcurrentHashMap<>();
+
+    private final AtomicLong ids = new AtomicLong();
+
+    private final long queryNanos;
+
+    private InMemoryEmployeeRepository(int queryMicros) {
+        this.queryNanos = TimeUnit.MICROSECONDS.toNanos(queryMicros);
+    }
+
+    public static EmployeeRepository create(int queryMicros) {
+        InMemoryEmployeeRepository repository = new InMemoryEmployeeRepository(queryMicros);
+        return (EmployeeRepository) Proxy.newProxyInstance(EmployeeRepository.class.getClassLoader(),
+                new Class<?>[]{EmployeeRepository.class}, (proxy, method, args) -> repository.invoke(proxy, method, args));
+    }
+
+    private Object invoke(Object proxy, Method method, Object[] args) {
+        if (method.getDeclaringClass() == Object.class) {
+            return objectMethod(proxy, method, args);
+        }
+        if (queryNanos > 0) {
+            LockSupport.parkNanos(queryNanos);
+        }
+        switch (method.getName()) {
+            case "save":
+            case "saveAndFlush":
+                return save((EmployeeDTO) args[0]);
+            case "findById":
+                return Optional.ofNullable(employees.get((Long) args[0]));
+            case "findForUpdateById":
+                //a copy, the stored row keeps its old email until save swaps it in
+                return Optional.ofNullable(employees.get((Long) args[0])).map(InMemoryEmployeeRepository::copy);
+            case "findByEmail":
+                return Optional.ofNullable(idsByEmail.get((String) args[0])).map(employees::get);
+            case "findExistingEmails":
+                return ((Collection<?>) args[0]).stream().filter(idsByEmail::containsKey).map(String.class::cast)
+                        .collect(Collectors.toList());
+            case "findSummaryById":
+                return Optional.ofNullable(employees.get((Long) args[0])).map(EmployeeSummary::of);
+            case "findVersionById":
+                return Optional.ofNullable(employees.get((Long) args[0])).map(EmployeeDTO::getVersion);
+            case "findSummariesAfter":
+                return employees.tailMap((Long) args[0], false).values().stream()
+                        .limit(((Pageable) args[1]).getPageSize()).map(EmployeeSummary::of).collect(Collectors.toList());
+            case "streamAllEmails":
+                return employees.values().stream().map(EmployeeDTO::getEmail);
+            case "streamAllSummaries":
+                return employees.values().stream().map(EmployeeSummary::of);
+            case "searchByPrefix":
+                return searchByPrefix((String) args[0], (Pageable) args[1]);
+            case "patchEmployee":
+                return patch((Long) args[0], (String) args[1], (String) args[2], (String) args[3], (Long) args[4]);
+            case "deleteById":
+                delete((Long) args[0]);
+                return null;
+            default:
+                throw new UnsupportedOperationException(method.getName() + " is not stubbed");
+        }
+    }
+
+    private EmployeeDTO save(EmployeeDTO employee) {
+        if (employee.getId() == 0) {
+            employee.setId(ids.incrementAndGet());
+        } else {
+            EmployeeDTO current = employees.get(employee.getId());
+            if (current != null) {
+                idsByEmail.remove(current.getEmail());
+                employee.setVersion(current.getVersion() + 1);
+            }
+        }
+        employees.put(employee.getId(), employee);
+        idsByEmail.put(employee.getEmail(), employee.getId());
+        return employee;
+    }
+
+    private static EmployeeDTO copy(EmployeeDTO employee) {
+        return EmployeeDTO.builder().id(employee.getId())
+                .firstName(employee.getFirstName())
+                .lastName(employee.getLastName())
+                .email(employee.getEmail())
+                .version(employee.getVersion())
+                .build();
+    }
+
+    private int patch(long id, String firstName, String lastName, String email, Long version) {
+        EmployeeDTO current = employees.get(id);
+        if (current == null || (version != null && current.getVersion() != version)) {
+            return 0;
+        }
+        EmployeeDTO patched = EmployeeDTO.builder().id(id)
+                .firstName(firstName != null ? firstName : current.getFirstName())
+                .lastName(lastName != null ? lastName : current.getLastName())
+                .email(email != null ? email : current.getEmail())
+                .version(current.getVersion() + 1)
+                .build();
+        idsByEmail.remove(current.getEmail());
+        employees.put(id, patched);
+        idsByEmail.put(patched.getEmail(), id);
+        return 1;
+    }
+
+    private void delete(long id) {
+        EmployeeDTO removed = employees.remove(id);
+        if (removed != null) {
+            idsByEmail.remove(removed.getEmail());
+        }
+    }
+
+    //the escaped like pattern the service builds, only the trailing % is a wildcard here
+    private List<EmployeeSummary> searchByPrefix(String pattern, Pageable pageable) {
+        String prefix = pattern.substring(0, pattern.length() - 1)
+                .replace("!%", "%").replace("!_", "_").replace("!!", "!");
+        return employees.values().stream()
+                .filter(employee -> startsWith(employee.getFirstName(), prefix) || startsWith(employee.getLastName(), prefix)
+                        || startsWith(employee.getEmail(), prefix))
+                .limit(pageable.getPageSize())
+                .map(EmployeeSummary::of)
+                .collect(Collectors.toList());
+    }
+
+    private static boolean startsWith(String value, String prefix) {
+        return value != null && value.toLowerCase(Locale.ROOT).startsWith(prefix);
+    }
+
+    private Object objectMethod(Object proxy, Method method, Object[] args) {
+        switch (method.getName()) {
+            case "equals":
+                return proxy == args[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            default:
+                return "InMemoryEmployeeRepository(" + employees.size() + ")";
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.chuman.benchmark;
+
+import com.chuman.model.EmployeeDTO;
+import com.chuman.model.EmployeeSummary;
+import com.chuman.repository.EmployeeRepository;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.zaxxer.hikari.HikariDataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+//the list and by-id reads through hibernate on embedded h2: managed entities against the summary projections the read
+//endpoints use. the entity reads run once in a read-write transaction, the path before projections where every row is
+//snapshotted for dirty checking, and once read-only. with the jmh profile's gc profiler, gc.alloc.rate.norm is the
+//bytes allocated per call. the second-level cache is off, every call hydrates from the result set.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProjectionReadBenchmark {
+
+    private static final int EMPLOYEES = 10_000;
+
+    private static final int PAGE_SIZE = 100;
+
+    private AnnotationConfigApplicationContext context;
+
+    private EmployeeRepository repository;
+
+    private EntityManager entityManager;
+
+    private TransactionTemplate readWrite;
+
+    private TransactionTemplate readOnly;
+
+    @Setup
+    public void setup() {
+        //no spring boot to configure logging, logback's default would log every hydrated row at debug
+        ((Logger) LoggerFactory.getLogger(Logger.ROOT_LOGGER_NAME)).setLevel(Level.WARN);
+        context = new AnnotationConfigApplicationContext(JpaConfig.class);
+        repository = context.getBean(EmployeeRepository.class);
+        //the shared proxy, it binds to the transaction of the calling template
+        entityManager = SharedEntityManagerCreator.createSharedEntityManager(context.getBean(EntityManagerFactory.class));
+        PlatformTransactionManager transactionManager = context.getBean(PlatformTransactionManager.class);
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        for (int from = 0; from < EMPLOYEES; from += 1000) {
+            List<EmployeeDTO> chunk = new ArrayList<>(1000);
+            for (int i = from; i < from + 1000; i++) {
+                chunk.add(Benchmarks.employee(i));
+            }
+            readWrite.executeWithoutResult(status -> repository.saveAll(chunk));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<EmployeeDTO> pageEntities() {
+        return readWrite.execute(status -> entityPage(randomId()));
+    }
+
+    @Benchmark
+    public List<EmployeeDTO> pageEntitiesReadOnly() {
+        return readOnly.execute(status -> entityPage(randomId()));
+    }
+
+    @Benchmark
+    public List<EmployeeSummary> pageSummaries() {
+        return readOnly.execute(status -> repository.findSummariesAfter(randomId(), PageRequest.of(0, PAGE_SIZE)));
+    }
+
+    @Benchmark
+    public Optional<EmployeeDTO> findEntity() {
+        return readWrite.execute(status -> repository.findById(randomId()));
+    }
+
+    @Benchmark
+    public Optional<EmployeeDTO> findEntityReadOnly() {
+        return readOnly.execute(status -> repository.findById(randomId()));
+    }
+
+    @Benchmark
+    public Optional<EmployeeSummary> findSummary() {
+        return readOnly.execute(status -> repository.findSummaryById(randomId()));
+    }
+
+    //the keyset page of findSummariesAfter as entities, so both sides run the same select
+    private List<EmployeeDTO> entityPage(long after) {
+        return entityManager.createQuery("select e from Employee e where e.id > :after order by e.id", EmployeeDTO.class)
+                .setParameter("after", after)
+                .setMaxResults(PAGE_SIZE)
+                .getResultList();
+    }
+
+    private static long randomId() {
+        return ThreadLocalRandom.current().nextLong(1, EMPLOYEES - PAGE_SIZE);
+    }
+
+    //the jpa half of the application context: the entities and repositories on an in-memory h2
+    @Configuration
+    @EnableJpaRepositories(basePackageClasses = EmployeeRepository.class)
+    static class JpaConfig {
+
+        @Bean(destroyMethod = "close")
+        public HikariDataSource dataSource() {
+            HikariDataSource dataSource = new HikariDataSource();
+            dataSource.setJdbcUrl("jdbc:h2:mem:projection-benchmark;DB_CLOSE_DELAY=-1");
+            return dataSource;
+        }
+
+        @Bean
+        public LocalContainerEntityManagerFactoryBean entityManagerFactory(DataSource dataSource) {
+            LocalContainerEntityManagerFactoryBean factory = new LocalContainerEntityManagerFactoryBean();
+            factory.setDataSource(dataSource);
+            factory.setPackagesToScan(EmployeeDTO.class.getPackageName());
+            factory.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+            factory.setJpaPropertyMap(Map.of(
+                    "hibernate.hbm2ddl.auto", "create-drop",
+                    "hibernate.jdbc.batch_size", "500",
+                    //on by default once hibernate-jcache is on the class path, it would answer findEntity from memory
+                    "hibernate.cache.use_second_level_cache", "false",
+                    "hibernate.cache.use_query_cache", "false"));
+            return factory;
+        }
+
+        @Bean
+        public PlatformTransactionManager transactionManager(EntityManagerFactory entityManagerFactory) {
+            return new JpaTransactionManager(entityManagerFactory);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.chuman.benchmark;
+
+import com.chuman.model.EmployeeDTO;
+import com.chuman.model.EmployeeSummary;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+//jackson cost of the list endpoint per encoding, entity lists against the summary projection it now serves.
+//run with -prof gc for allocation per operation, the payload size of each encoding is printed once per trial.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SerializationBenchmark {
+
+    @Param({"10", "100", "1000"})
+    int size;
+
+    @Param({"json", "cbor", "smile"})
+    String format;
+
+    private ObjectWriter employeeWriter;
+
+    private ObjectWriter summaryWriter;
+
+    private ObjectReader employeeReader;
+
+    private List<EmployeeDTO> employees;
+
+    private List<EmployeeSummary> summaries;
+
+    private byte[] encodedEmployees;
+
+    //same builder settings as ContentNegotiationConfig
+    @Setup
+    public void setup() throws IOException {
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json();
+        if (format.equals("cbor")) {
+            builder.factory(new CBORFactory());
+        } else if (format.equals("smile")) {
+            builder.factory(new SmileFactory());
+        }
+        ObjectMapper mapper = builder.build();
+        employees = Benchmarks.employees(size);
+        summaries = employees.stream().map(EmployeeSummary::of).collect(Collectors.toList());
+        employeeWriter = mapper.writerFor(new TypeReference<List<EmployeeDTO>>() { });
+        summaryWriter = mapper.writerFor(new TypeReference<List<EmployeeSummary>>() { });
+        employeeReader = mapper.readerFor(new TypeReference<List<EmployeeDTO>>() { });
+        encodedEmployees = employeeWriter.writeValueAsBytes(employees);
+        System.out.println(format + " payload for " + size + " employees: " + encodedEmployees.length + " bytes");
+    }
+
+    @Benchmark
+    public byte[] writeEmployees() throws IOException {
+        return employeeWriter.writeValueAsBytes(employees);
+    }
+
+    @Benchmark
+    public byte[] writeSummaries() throws IOException {
+        return summaryWriter.writeValueAsBytes(summaries);
+    }
+
+    @Benchmark
+    public List<EmployeeDTO> readEmployees() throws IOException {
+        return employeeReader.readValue(encodedEmployees);
+    }
+}
@@ -0,0 +1,81 @@
+package com.chuman.benchmark;
+
+import com.chuman.controller.EmployeeChangeStream;
+import com.chuman.controller.EmployeeController;
+import com.chuman.model.EmployeeDTO;
+import com.chuman.repository.EmployeeRepository;
+import com.chuman.service.EmployeeService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.lang.reflect.Constructor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+//the PUT /api/employees/{id} path without http: read the body, copy it onto the locked row, save, write the response.
+//the controller is called directly, so servlet and spring mvc dispatch are not part of the number.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UpdateMappingBenchmark {
+
+    private static final int EMPLOYEES = 10_000;
+
+    private EmployeeController controller;
+
+    private ObjectReader requestReader;
+
+    private ObjectWriter responseWriter;
+
+    private byte[] requestBody;
+
+    @Setup
+    public void setup() throws Exception {
+        EmployeeRepository repository = InMemoryEmployeeRepository.create(0);
+        Benchmarks.seed(repository, EMPLOYEES);
+        ObjectMapper mapper = Jackson2ObjectMapperBuilder.json().build();
+        //the constructor is private, spring creates it reflectively as well. the change stream is not exercised here
+        Constructor<EmployeeController> constructor = EmployeeController.class
+                .getDeclaredConstructor(EmployeeService.class, EmployeeChangeStream.class, ObjectMapper.class);
+        constructor.setAccessible(true);
+        controller = constructor.newInstance(Benchmarks.service(repository, true, true), null, mapper);
+        requestReader = mapper.readerFor(EmployeeDTO.class);
+        responseWriter = mapper.writerFor(EmployeeDTO.class);
+        requestBody = mapper.writeValueAsBytes(EmployeeDTO.builder()
+                .firstName("kalia")
+                .lastName("kumar")
+                .email("kalia.kumar@example.com")
+                .build());
+    }
+
+    //a different row each call, the email is unique per row so the index and the email map stay consistent
+    @Benchmark
+    public ResponseEntity<EmployeeDTO> mapUpdate() throws IOException {
+        long id = ThreadLocalRandom.current().nextLong(1, EMPLOYEES + 1);
+        EmployeeDTO request = requestReader.readValue(requestBody);
+        request.setEmail("employee" + (id - 1) + "@example.com");
+        return controller.updateEmployee(id, request, null);
+    }
+
+    @Benchmark
+    public byte[] mapUpdateWithResponse() throws IOException {
+        return responseWriter.writeValueAsBytes(mapUpdate().getBody());
+    }
+}
@@ -0,0 +1,17 @@
+package com.chuman.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+//caffeine size/ttl is set by spring.cache.caffeine.spec, spring.cache.type=none switches caching off
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String EMPLOYEE_CACHE = "employees";
+
+    //hibernate second-level regions, sized in application.conf
+    public static final String EMPLOYEE_QUERY_REGION = "employee-queries";
+
+    public static final String EMPLOYEE_NATIVE_QUERY_REGION = "employee-native-queries";
+}
@@ -0,0 +1,54 @@
+package com.chuman.config;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+
+//training run for the AppCDS archive, enabled by the cds-training profile during the docker build.
+//once the context is ready it serves one list request, so the classes on the request path are in the class list too, then exits.
+@Component
+@ConditionalOnProperty(prefix = "employee.startup", name = "training-run", havingValue = "true")
+public class CdsTrainingRun {
+
+    private static final Log LOGGER = LogFactory.getLog(CdsTrainingRun.class);
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void exitAfterFirstRequest(ApplicationReadyEvent event) {
+        ConfigurableApplicationContext context = event.getApplicationContext();
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        int status;
+        try {
+            status = get(new URL("http://localhost:" + port + "/api/employees"));
+        } catch (IOException e) {
+            LOGGER.error("cds training request failed", e);
+            status = -1;
+        }
+        LOGGER.info("cds training request returned " + status + ", exiting");
+        int exitCode = status == 200 ? 0 : 1;
+        System.exit(SpringApplication.exit(context, () -> exitCode));
+    }
+
+    private static int get(URL url) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        connection.setConnectTimeout(5000);
+        connection.setReadTimeout(30000);
+        int status = connection.getResponseCode();
+        try (InputStream response = status < 400 ? connection.getInputStream() : connection.getErrorStream()) {
+            if (response != null) {
+                response.readAllBytes();
+            }
+        }
+        return status;
+    }
+}
@@ -0,0 +1,92 @@
+package com.chuman.config;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+//polls the replica for its replication lag. the replica is only used while the lag is known and within bounds,
+//so an unreachable replica, a stopped replication thread or a lag query with no rows all fall back to the primary.
+public class ReplicaLagMonitor implements AutoCloseable {
+
+    private static final Log LOGGER = LogFactory.getLog(ReplicaLagMonitor.class);
+
+    private final DataSource replica;
+
+    private final String lagQuery;
+
+    private final String lagColumn;
+
+    private final long maxLagSeconds;
+
+    private final long checkIntervalMs;
+
+    private volatile double lagSeconds = Double.NaN;
+
+    private ScheduledExecutorService executor;
+
+    public ReplicaLagMonitor(DataSource replica, String lagQuery, String lagColumn, long maxLagSeconds, long checkIntervalMs) {
+        this.replica = replica;
+        this.lagQuery = lagQuery;
+        this.lagColumn = lagColumn;
+        this.maxLagSeconds = maxLagSeconds;
+        this.checkIntervalMs = checkIntervalMs;
+    }
+
+    public void start() {
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-lag-monitor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::check, 0, checkIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    public void check() {
+        double lag = Double.NaN;
+        try (Connection connection = replica.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet result = statement.executeQuery(lagQuery)) {
+            if (result.next()) {
+                Object value = lagColumn == null || lagColumn.isBlank() ? result.getObject(1) : result.getObject(lagColumn);
+                if (value instanceof Number) {
+                    lag = ((Number) value).doubleValue();
+                } else if (value != null) {
+                    lag = Double.parseDouble(value.toString());
+                }
+            }
+        } catch (SQLException | RuntimeException e) {
+            LOGGER.warn("could not read replica lag, reads go to the primary: " + e.getMessage());
+        }
+        boolean wasUsable = isReplicaUsable();
+        lagSeconds = lag;
+        if (wasUsable != isReplicaUsable()) {
+            LOGGER.info("replica lag " + (Double.isNaN(lag) ? "unknown" : lag + "s") + ", replica reads "
+                    + (wasUsable ? "disabled" : "enabled"));
+        }
+    }
+
+    public boolean isReplicaUsable() {
+        double lag = lagSeconds;
+        return !Double.isNaN(lag) && lag <= maxLagSeconds;
+    }
+
+    //NaN while unknown
+    public double getLagSeconds() {
+        return lagSeconds;
+    }
+
+    @Override
+    public void close() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+}
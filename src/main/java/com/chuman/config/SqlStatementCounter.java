@@ -0,0 +1,85 @@
+package com.chuman.config;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+//counts the statements hibernate prepares on the current thread, registered through
+//hibernate.session_factory.statement_inspector. SqlCountFilter opens a scope per request, tests open their own.
+public class SqlStatementCounter implements StatementInspector {
+
+    private static final ThreadLocal<Scope> CURRENT = new ThreadLocal<>();
+
+    @Override
+    public String inspect(String sql) {
+        Scope scope = CURRENT.get();
+        if (scope != null) {
+            scope.record(sql);
+        }
+        return sql;
+    }
+
+    //scopes nest, statements counted by an inner scope are counted by the outer ones as well
+    public static Scope begin() {
+        Scope scope = new Scope(CURRENT.get());
+        CURRENT.set(scope);
+        return scope;
+    }
+
+    //-1 outside of a scope
+    public static int currentCount() {
+        Scope scope = CURRENT.get();
+        return scope == null ? -1 : scope.getCount();
+    }
+
+    public static final class Scope implements AutoCloseable {
+
+        private final Scope parent;
+
+        private final Map<String, Integer> statements = new LinkedHashMap<>();
+
+        private int count;
+
+        private Scope(Scope parent) {
+            this.parent = parent;
+        }
+
+        private void record(String sql) {
+            count++;
+            statements.merge(sql, 1, Integer::sum);
+            if (parent != null) {
+                parent.record(sql);
+            }
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        //statement text with its run count, in first run order
+        public Map<String, Integer> getStatements() {
+            return statements;
+        }
+
+        //statements run at least threshold times, the usual shape of an n+1
+        public Map<String, Integer> repeated(int threshold) {
+            Map<String, Integer> repeated = new LinkedHashMap<>();
+            statements.forEach((sql, runs) -> {
+                if (runs >= threshold) {
+                    repeated.put(sql, runs);
+                }
+            });
+            return repeated;
+        }
+
+        @Override
+        public void close() {
+            if (parent == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(parent);
+            }
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.chuman.controller;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+//gradient concurrency limit: the limit follows the ratio of the long term rtt to the latest rtt, so it shrinks as
+//latency rises above the baseline and grows back by sqrt(limit) while latency stays flat.
+//reads may only use readShare of the limit, so under pressure reads are shed first and writes keep the headroom.
+final class AdaptiveConcurrencyLimiter {
+
+    private final int minLimit;
+
+    private final int maxLimit;
+
+    private final double readShare;
+
+    private final double rttTolerance;
+
+    private final double smoothing;
+
+    private final int longWindow;
+
+    private final AtomicInteger inflight = new AtomicInteger();
+
+    private volatile double limit;
+
+    //guarded by this
+    private double longRtt;
+
+    AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, double readShare, double rttTolerance,
+                               double smoothing, int longWindow) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.readShare = readShare;
+        this.rttTolerance = rttTolerance;
+        this.smoothing = smoothing;
+        this.longWindow = longWindow;
+        this.limit = Math.max(minLimit, Math.min(initialLimit, maxLimit));
+    }
+
+    boolean tryAcquire(boolean write) {
+        double allowed = write ? limit : Math.max(1, limit * readShare);
+        while (true) {
+            int current = inflight.get();
+            if (current >= allowed) {
+                return false;
+            }
+            if (inflight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    //every acquired permit is released exactly once, with the time the request held it
+    void release(long rttNanos) {
+        int inflightAtRelease = inflight.getAndDecrement();
+        sample(rttNanos, inflightAtRelease);
+    }
+
+    synchronized void sample(long rttNanos, int inflightAtSample) {
+        double rtt = Math.max(1, rttNanos);
+        longRtt = longRtt == 0 ? rtt : longRtt + (rtt - longRtt) / longWindow;
+        //the baseline drifted up during a slowdown and latency is back, pull it down so the limit can recover
+        if (longRtt / rtt > 2) {
+            longRtt *= 0.95;
+        }
+        double current = limit;
+        //too little traffic to probe the limit
+        if (inflightAtSample < current / 2) {
+            return;
+        }
+        double gradient = Math.max(0.5, Math.min(1.0, rttTolerance * longRtt / rtt));
+        double next = current * gradient + Math.sqrt(current);
+        next = current * (1 - smoothing) + next * smoothing;
+        limit = Math.max(minLimit, Math.min(next, maxLimit));
+    }
+
+    int getLimit() {
+        return (int) limit;
+    }
+
+    int getInflight() {
+        return inflight.get();
+    }
+}
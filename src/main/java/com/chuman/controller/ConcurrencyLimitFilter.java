@@ -0,0 +1,89 @@
+package com.chuman.controller;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+//sheds employee api requests with a fast 503 once the adaptive concurrency limit is reached, so a slow database
+//does not pile every tomcat thread up behind the hikari pool. runs before the other filters so shedding is cheap.
+//the streaming export and the change stream are long lived by design and are not limited.
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 100)
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private final AdaptiveConcurrencyLimiter limiter;
+
+    private final boolean enabled;
+
+    private final String retryAfterSeconds;
+
+    private final Counter readsRejected;
+
+    private final Counter writesRejected;
+
+    public ConcurrencyLimitFilter(ObjectProvider<MeterRegistry> meterRegistry,
+                                  @Value("${employee.concurrency-limit.enabled:true}") boolean enabled,
+                                  @Value("${employee.concurrency-limit.initial-limit:20}") int initialLimit,
+                                  @Value("${employee.concurrency-limit.min-limit:4}") int minLimit,
+                                  @Value("${employee.concurrency-limit.max-limit:200}") int maxLimit,
+                                  @Value("${employee.concurrency-limit.read-share:0.8}") double readShare,
+                                  @Value("${employee.concurrency-limit.rtt-tolerance:1.5}") double rttTolerance,
+                                  @Value("${employee.concurrency-limit.smoothing:0.2}") double smoothing,
+                                  @Value("${employee.concurrency-limit.long-window:600}") int longWindow,
+                                  @Value("${employee.concurrency-limit.retry-after-seconds:1}") int retryAfterSeconds) {
+        this.enabled = enabled;
+        this.limiter = new AdaptiveConcurrencyLimiter(initialLimit, minLimit, maxLimit, readShare, rttTolerance,
+                smoothing, longWindow);
+        this.retryAfterSeconds = String.valueOf(retryAfterSeconds);
+        MeterRegistry registry = meterRegistry.getIfAvailable(SimpleMeterRegistry::new);
+        Gauge.builder("employee.concurrency.limit", limiter, AdaptiveConcurrencyLimiter::getLimit)
+                .description("current adaptive concurrency limit of the employee api")
+                .register(registry);
+        Gauge.builder("employee.concurrency.inflight", limiter, AdaptiveConcurrencyLimiter::getInflight)
+                .description("employee api requests holding a permit")
+                .register(registry);
+        this.readsRejected = Counter.builder("employee.concurrency.rejected").tag("priority", "read").register(registry);
+        this.writesRejected = Counter.builder("employee.concurrency.rejected").tag("priority", "write").register(registry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return !enabled || !path.startsWith("/api/employees") || path.equals("/api/employees/export")
+                || path.equals("/api/employees/changes");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        boolean write = !(HttpMethod.GET.matches(request.getMethod()) || HttpMethod.HEAD.matches(request.getMethod()));
+        if (!limiter.tryAcquire(write)) {
+            (write ? writesRejected : readsRejected).increment();
+            response.setHeader(HttpHeaders.RETRY_AFTER, retryAfterSeconds);
+            response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(), "employee api is over its concurrency limit");
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            limiter.release(System.nanoTime() - start);
+        }
+    }
+}
@@ -0,0 +1,227 @@
+package com.chuman.controller;
+
+import com.chuman.model.EmployeeChange;
+import com.chuman.service.impl.EmployeeChangeFeed;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+//fans the employee change feed out to server-sent event subscribers. a write only wakes the subscribers up, each one
+//then drains the ring from its own cursor on the stream's threads, so a slow client falls behind on its own and
+//never holds up a writer or another client. a client the ring lapped gets a reset event and has to reload.
+//event ids are "epoch-sequence" and are resumed from with Last-Event-ID while the ring still holds the next event.
+@Component
+public class EmployeeChangeStream {
+
+    private static final Log LOGGER = LogFactory.getLog(EmployeeChangeStream.class);
+
+    static final String RESET_EVENT = "reset";
+
+    private static final int BATCH_SIZE = 256;
+
+    private final EmployeeChangeFeed feed;
+
+    private final long timeoutMs;
+
+    private final int maxSubscribers;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+    //one thread per subscriber at most, a client stuck on a full socket blocks only its own drain
+    private final ThreadPoolExecutor drains;
+
+    private final ScheduledExecutorService heartbeats;
+
+    private final Counter resets;
+
+    public EmployeeChangeStream(EmployeeChangeFeed feed, MeterRegistry meterRegistry,
+                                @Value("${employee.changes.timeout-ms:1800000}") long timeoutMs,
+                                @Value("${employee.changes.heartbeat-ms:15000}") long heartbeatMs,
+                                @Value("${employee.changes.max-subscribers:50}") int maxSubscribers) {
+        this.feed = feed;
+        this.timeoutMs = timeoutMs;
+        this.maxSubscribers = Math.max(1, maxSubscribers);
+        AtomicInteger threads = new AtomicInteger();
+        this.drains = new ThreadPoolExecutor(this.maxSubscribers, this.maxSubscribers, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), runnable -> daemon(runnable, "employee-changes-" + threads.incrementAndGet()));
+        this.drains.allowCoreThreadTimeOut(true);
+        this.heartbeats = Executors.newSingleThreadScheduledExecutor(runnable -> daemon(runnable, "employee-changes-heartbeat"));
+        this.heartbeats.scheduleAtFixedRate(this::heartbeat, heartbeatMs, heartbeatMs, TimeUnit.MILLISECONDS);
+        this.resets = Counter.builder("employee.changes.resets")
+                .description("subscribers told to reload because the change buffer no longer held their position")
+                .register(meterRegistry);
+        Gauge.builder("employee.changes.subscribers", subscribers, Set::size).register(meterRegistry);
+        feed.addListener(this::wakeUp);
+    }
+
+    //null once maxSubscribers streams are open, the limit is checked without a lock and may be passed briefly
+    public SseEmitter subscribe(String lastEventId) {
+        if (subscribers.size() >= maxSubscribers) {
+            return null;
+        }
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Subscriber subscriber = new Subscriber(emitter);
+        long last = feed.getLastSequence();
+        Long resumeFrom = resumePosition(lastEventId);
+        if (resumeFrom == null) {
+            subscriber.cursor = last;
+        } else if (resumeFrom > last || resumeFrom < feed.getFirstSequence() - 1) {
+            //unknown run, a future position or already overwritten
+            subscriber.cursor = last;
+            subscriber.reset = true;
+        } else {
+            subscriber.cursor = resumeFrom;
+        }
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(e -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+        subscriber.signal();
+        return emitter;
+    }
+
+    @PreDestroy
+    public void close() {
+        heartbeats.shutdownNow();
+        drains.shutdownNow();
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        subscribers.clear();
+    }
+
+    private void wakeUp() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.signal();
+        }
+    }
+
+    //a comment line keeps proxies from closing an idle stream and finds clients that went away
+    private void heartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.heartbeat = true;
+            subscriber.signal();
+        }
+    }
+
+    private Long resumePosition(String lastEventId) {
+        if (lastEventId == null || lastEventId.isBlank()) {
+            return null;
+        }
+        String[] parts = lastEventId.trim().split("-");
+        try {
+            if (parts.length == 2 && Long.parseLong(parts[0]) == feed.getEpoch()) {
+                return Long.parseLong(parts[1]);
+            }
+        } catch (NumberFormatException e) {
+            //treated like an id from another run
+        }
+        return -1L;
+    }
+
+    private String eventId(long sequence) {
+        return feed.getEpoch() + "-" + sequence;
+    }
+
+    private static Thread daemon(Runnable runnable, String name) {
+        Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    private final class Subscriber implements Runnable {
+
+        private final SseEmitter emitter;
+
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+
+        //only touched by the single drain in flight, handed over through scheduled
+        private long cursor;
+
+        private boolean reset;
+
+        private volatile boolean heartbeat;
+
+        private Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        void signal() {
+            if (scheduled.compareAndSet(false, true)) {
+                drains.execute(this);
+            }
+        }
+
+        @Override
+        public void run() {
+            long position;
+            try {
+                boolean sent = drain();
+                if (heartbeat && !sent) {
+                    emitter.send(SseEmitter.event().comment("keepalive"));
+                }
+                heartbeat = false;
+                position = cursor;
+            } catch (IOException | IllegalStateException e) {
+                //client went away or the emitter already completed
+                subscribers.remove(this);
+                emitter.completeWithError(e);
+                return;
+            } finally {
+                scheduled.set(false);
+            }
+            //a write that landed after the last read found the drain still scheduled
+            if (position < feed.getLastSequence() && subscribers.contains(this)) {
+                signal();
+            }
+        }
+
+        private boolean drain() throws IOException {
+            boolean sent = false;
+            while (true) {
+                if (reset) {
+                    resets.increment();
+                    emitter.send(SseEmitter.event().id(eventId(cursor)).name(RESET_EVENT).data(RESET_EVENT));
+                    reset = false;
+                    sent = true;
+                }
+                List<EmployeeChange> changes = feed.readAfter(cursor, BATCH_SIZE);
+                if (changes == null) {
+                    LOGGER.warn("change stream subscriber fell more than the buffer behind, sending reset");
+                    cursor = feed.getLastSequence();
+                    reset = true;
+                    continue;
+                }
+                if (changes.isEmpty()) {
+                    return sent;
+                }
+                for (EmployeeChange change : changes) {
+                    emitter.send(SseEmitter.event()
+                            .id(eventId(change.getSequence()))
+                            .name(change.getType().name().toLowerCase(Locale.ROOT))
+                            .data(change, MediaType.APPLICATION_JSON));
+                    cursor = change.getSequence();
+                }
+                sent = true;
+            }
+        }
+    }
+}
@@ -1,14 +1,33 @@
 package com.chuman.controller;
 
+import com.chuman.model.BulkEmployeeResult;
+import com.chuman.model.EmployeeCollectionVersion;
 import com.chuman.model.EmployeeDTO;
+import com.chuman.model.EmployeeDelta;
+import com.chuman.model.EmployeePage;
+import com.chuman.model.EmployeeSearchPage;
+import com.chuman.model.EmployeeSummary;
+import com.chuman.model.EmployeeWatermark;
 import com.chuman.service.EmployeeService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/employees")
@@ -16,11 +35,27 @@ public class EmployeeController {
 
     private static final Log LOGGER = LogFactory.getLog(EmployeeController.class);
 
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private static final int MAX_PAGE_SIZE = 1000;
+
+    private static final int MAX_SEARCH_SIZE = 100;
+
+    private static final String ANY_TAG = "*";
+
+    private static final String LAST_EVENT_ID_HEADER = "Last-Event-ID";
+
     private final EmployeeService employeeService;
 
-    private EmployeeController(EmployeeService employeeService) {
+    private final EmployeeChangeStream changeStream;
+
+    private final ObjectWriter employeeWriter;
+
+    private EmployeeController(EmployeeService employeeService, EmployeeChangeStream changeStream, ObjectMapper objectMapper) {
 
         this.employeeService = employeeService;
+        this.changeStream = changeStream;
+        this.employeeWriter = objectMapper.writerFor(EmployeeSummary.class);
     }
 
     @PostMapping
@@ -29,32 +64,218 @@ public class EmployeeController {
         return employeeService.saveEmployee(employee);
     }
 
+    //per item results, one bad item does not fail the rest of the list
+    @PostMapping("bulk")
+    public List<BulkEmployeeResult> createEmployees(@RequestBody List<EmployeeDTO> employees){
+        return employeeService.saveEmployees(employees);
+    }
+
     @GetMapping
-    public List<EmployeeDTO> getAllEmployees(){
-        LOGGER.info("get all employee data " + employeeService.getAllEmployee());
-        return employeeService.getAllEmployee();
+    public ResponseEntity<List<EmployeeSummary>> getAllEmployees(@RequestParam(value = "after", defaultValue = "0") long after,
+                                                             @RequestParam(value = "limit", defaultValue = "100") int limit,
+                                                             @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch){
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        if (ifNoneMatch != null) {
+            String etag = pageTag(after, pageSize, employeeService.getEmployeePageVersion(after, pageSize));
+            if (matches(ifNoneMatch, etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+            }
+        }
+        EmployeePage page = employeeService.getEmployeePage(after, pageSize);
+        LOGGER.info("get employee page after " + after + " size " + page.getContent().size());
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().eTag(pageTag(after, pageSize, EmployeeCollectionVersion.of(page)));
+        if (page.getNextCursor() != null) {
+            String next = ServletUriComponentsBuilder.fromCurrentRequest()
+                    .replaceQueryParam("after", page.getNextCursor())
+                    .replaceQueryParam("limit", pageSize)
+                    .toUriString();
+            response.header(NEXT_CURSOR_HEADER, String.valueOf(page.getNextCursor()))
+                    .header(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"");
+        }
+        return response.body(page.getContent());
+    }
+
+    //delta sync for clients that cannot hold the change stream open: rows created or updated and tombstones of rows
+    //deleted after the watermark, oldest first. since=0 starts with every employee, the response watermark is the next since.
+    //410 when the watermark is older than the tombstone retention, the client has to start over from 0
+    @GetMapping(params = "since")
+    public ResponseEntity<EmployeeDelta> getEmployeeChanges(@RequestParam("since") String since,
+                                                            @RequestParam(value = "limit", defaultValue = "1000") int limit){
+        EmployeeWatermark watermark;
+        try {
+            watermark = EmployeeWatermark.parse(since);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        return employeeService.getEmployeeChanges(watermark, pageSize)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.GONE).build());
+    }
+
+    //newline delimited json, one employee per line written as the rows are read
+    @GetMapping(value = "export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportEmployees(){
+        StreamingResponseBody body = outputStream -> employeeService.exportEmployees(employee -> {
+            try {
+                outputStream.write(employeeWriter.writeValueAsBytes(employee));
+                outputStream.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    //server-sent events for every committed create, update and delete instead of polling the list. a reconnect with
+    //Last-Event-ID resumes after that event while the change buffer still holds it, otherwise a reset event says reload
+    @GetMapping(value = "changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamChanges(@RequestHeader(value = LAST_EVENT_ID_HEADER, required = false) String lastEventId){
+        SseEmitter emitter = changeStream.subscribe(lastEventId);
+        if (emitter == null) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "5").build();
+        }
+        return ResponseEntity.ok().cacheControl(CacheControl.noStore()).body(emitter);
+    }
+
+    //typeahead over first name, last name and email, served from the in-memory search index
+    @GetMapping("search")
+    public ResponseEntity<List<EmployeeSummary>> searchEmployees(@RequestParam("q") String query,
+                                                                 @RequestParam(value = "offset", defaultValue = "0") int offset,
+                                                                 @RequestParam(value = "limit", defaultValue = "20") int limit){
+        if (query.isBlank()) {
+            return ResponseEntity.badRequest().build();
+        }
+        int pageSize = Math.max(1, Math.min(limit, MAX_SEARCH_SIZE));
+        EmployeeSearchPage page = employeeService.searchEmployees(query, Math.max(0, offset), pageSize);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextOffset() != null) {
+            String next = ServletUriComponentsBuilder.fromCurrentRequest()
+                    .replaceQueryParam("offset", page.getNextOffset())
+                    .replaceQueryParam("limit", pageSize)
+                    .toUriString();
+            response.header(NEXT_CURSOR_HEADER, String.valueOf(page.getNextOffset()))
+                    .header(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"");
+        }
+        return response.body(page.getContent());
     }
+
     @GetMapping("{id}")
-    public ResponseEntity<EmployeeDTO> getEmployeeById(@PathVariable("id") long employeeId){
-    return employeeService.getEmployeeById(employeeId).map(ResponseEntity::ok)
+    public ResponseEntity<EmployeeSummary> getEmployeeById(@PathVariable("id") long employeeId,
+                                                       @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch){
+        if (ifNoneMatch != null) {
+            //version only lookup, the row is not read when the client copy is current
+            Optional<Long> version = employeeService.getEmployeeVersion(employeeId);
+            if (version.isEmpty()) {
+                return ResponseEntity.notFound().build();
+            }
+            String etag = employeeTag(version.get());
+            if (matches(ifNoneMatch, etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+            }
+        }
+    return employeeService.getEmployeeSummary(employeeId)
+            .map(employee -> ResponseEntity.ok().eTag(employeeTag(employee.getVersion())).body(employee))
             .orElseGet(()-> ResponseEntity.notFound().build());
     }
     @PutMapping("{id}")
-    public ResponseEntity<EmployeeDTO> updateEmployee(@PathVariable("id") long employeeId, @RequestBody EmployeeDTO employee){
-       LOGGER.info("Employee id not found :- {}");
-        return employeeService.getEmployeeById(employeeId)
-                .map(savedEmployee ->{
-                    savedEmployee.setFirstName(employee.getFirstName());
-                    savedEmployee.setLastName(employee.getLastName());
-                    savedEmployee.setEmail(employee.getEmail());
-                    EmployeeDTO updateEmployee = employeeService.updateEmployee(savedEmployee);
-                    return new ResponseEntity<>(updateEmployee, HttpStatus.OK);
-                }).orElseGet(()->ResponseEntity.notFound().build());
+    public ResponseEntity<EmployeeDTO> updateEmployee(@PathVariable("id") long employeeId, @RequestBody EmployeeDTO employee,
+                                                      @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch){
+        Long expectedVersion = null;
+        if (ifMatch != null && !ANY_TAG.equals(ifMatch.trim())) {
+            expectedVersion = ifMatchVersion(ifMatch);
+            if (expectedVersion == null) {
+                return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+            }
+        }
+        //without a precondition the last writer wins
+        try {
+            return employeeService.replaceEmployee(employeeId, employee, expectedVersion)
+                    .map(updateEmployee -> ResponseEntity.ok().eTag(employeeTag(updateEmployee.getVersion())).body(updateEmployee))
+                    .orElseGet(()->ResponseEntity.notFound().build());
+        } catch (ObjectOptimisticLockingFailureException e) {
+            //only thrown for the version the client sent
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+        }
+    }
+
+    //only the supplied fields are written, one update statement and no select
+    @PatchMapping("{id}")
+    public ResponseEntity<Void> patchEmployee(@PathVariable("id") long employeeId, @RequestBody EmployeeDTO employee,
+                                              @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch){
+        Long expectedVersion = null;
+        if (ifMatch != null && !ANY_TAG.equals(ifMatch.trim())) {
+            expectedVersion = ifMatchVersion(ifMatch);
+            if (expectedVersion == null) {
+                return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+            }
+        }
+        if (!employeeService.patchEmployee(employeeId, employee, expectedVersion)) {
+            return missingOrModified(employeeId, expectedVersion);
+        }
+        return ResponseEntity.noContent().build();
     }
 
     @DeleteMapping("{id}")
-    public ResponseEntity<String> deleteEmployee(@PathVariable("id") long employeeId){
+    public ResponseEntity<String> deleteEmployee(@PathVariable("id") long employeeId,
+                                                 @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch){
+        if (ifMatch != null && !ANY_TAG.equals(ifMatch.trim())) {
+            Long expectedVersion = ifMatchVersion(ifMatch);
+            if (expectedVersion == null || !employeeService.deleteEmployee(employeeId, expectedVersion)) {
+                return missingOrModified(employeeId, expectedVersion);
+            }
+            return new ResponseEntity<>("Employee deleted Successfully",HttpStatus.OK);
+        }
          employeeService.deleteEmployee(employeeId);
          return new ResponseEntity<>("Employee deleted Successfully",HttpStatus.OK);
     }
+
+    //a conditional write that touched no row failed its precondition unless the row is gone
+    private <T> ResponseEntity<T> missingOrModified(long employeeId, Long expectedVersion) {
+        if (expectedVersion != null && employeeService.getEmployeeVersion(employeeId).isPresent()) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+        }
+        return ResponseEntity.notFound().build();
+    }
+
+    //weak tags: the version names the row, not the bytes. the json, cbor and smile forms share it, and tomcat only
+    //compresses a response whose etag is weak
+    private static String employeeTag(long version) {
+        return "W/\"" + version + "\"";
+    }
+
+    private static String pageTag(long after, int limit, EmployeeCollectionVersion version) {
+        return "W/\"" + after + "." + limit + "." + version.getCount() + "." + version.getVersionSum() + "."
+                + version.getMaxId() + "." + (version.isHasNext() ? 1 : 0) + "\"";
+    }
+
+    //If-None-Match may list several tags or *, compared weakly
+    private static boolean matches(String header, String etag) {
+        String opaqueTag = opaqueTag(etag);
+        for (String candidate : header.split(",")) {
+            String tag = candidate.trim();
+            if (ANY_TAG.equals(tag) || opaqueTag(tag).equals(opaqueTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String opaqueTag(String tag) {
+        return tag.startsWith("W/") ? tag.substring(2) : tag;
+    }
+
+    //If-Match must carry the single version tag the client last saw, null when it does not. the tags handed out are
+    //weak, they are taken back as the row version they name
+    private static Long ifMatchVersion(String header) {
+        String tag = opaqueTag(header.trim());
+        if (tag.length() > 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+            try {
+                return Long.parseLong(tag.substring(1, tag.length() - 1));
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+        return null;
+    }
 }
@@ -0,0 +1,240 @@
+package com.chuman.controller;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ReadListener;
+import javax.servlet.ServletException;
+import javax.servlet.ServletInputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import javax.servlet.http.HttpServletResponse;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+//replays the stored response when a create is retried with the same Idempotency-Key, without calling the service.
+//a retry that arrives while the first request is still running waits for it instead of inserting again.
+//5xx responses and exceptions are not stored, so the next retry runs for real.
+@Component
+public class IdempotencyKeyFilter extends OncePerRequestFilter {
+
+    static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
+    static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final Cache<String, CompletableFuture<StoredResponse>> responses;
+
+    private final long waitTimeoutMs;
+
+    public IdempotencyKeyFilter(@Value("${employee.idempotency.maximum-bytes:67108864}") long maximumBytes,
+                                @Value("${employee.idempotency.ttl:24h}") Duration ttl,
+                                @Value("${employee.idempotency.wait-timeout-ms:10000}") long waitTimeoutMs) {
+        this.responses = Caffeine.newBuilder()
+                .maximumWeight(maximumBytes)
+                .weigher((String key, CompletableFuture<StoredResponse> response) -> weight(response))
+                .expireAfterWrite(ttl)
+                .build();
+        this.waitTimeoutMs = waitTimeoutMs;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!HttpMethod.POST.matches(request.getMethod()) || request.getHeader(IDEMPOTENCY_KEY_HEADER) == null) {
+            return true;
+        }
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return !(path.equals("/api/employees") || path.equals("/api/employees/bulk"));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String key = request.getHeader(IDEMPOTENCY_KEY_HEADER).trim();
+        if (key.isEmpty() || key.length() > MAX_KEY_LENGTH) {
+            response.sendError(HttpStatus.BAD_REQUEST.value(), "Idempotency-Key must be 1 to " + MAX_KEY_LENGTH + " characters");
+            return;
+        }
+        byte[] body = StreamUtils.copyToByteArray(request.getInputStream());
+        String fingerprint = DigestUtils.md5DigestAsHex(body);
+        String cacheKey = request.getRequestURI() + " " + key;
+        while (true) {
+            CompletableFuture<StoredResponse> mine = new CompletableFuture<>();
+            CompletableFuture<StoredResponse> first = responses.asMap().putIfAbsent(cacheKey, mine);
+            if (first == null) {
+                execute(request, response, chain, body, fingerprint, cacheKey, mine);
+                return;
+            }
+            StoredResponse stored;
+            try {
+                stored = first.get(waitTimeoutMs, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                response.sendError(HttpStatus.CONFLICT.value(), "a request with this Idempotency-Key is still in progress");
+                return;
+            } catch (ExecutionException e) {
+                stored = null;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ServletException("interrupted waiting for the original request", e);
+            }
+            if (stored == null) {
+                //the first attempt was not stored, take over the key and run this one
+                continue;
+            }
+            if (!stored.fingerprint.equals(fingerprint)) {
+                response.sendError(HttpStatus.UNPROCESSABLE_ENTITY.value(), "Idempotency-Key was used for a different request body");
+                return;
+            }
+            stored.writeTo(response);
+            return;
+        }
+    }
+
+    private void execute(HttpServletRequest request, HttpServletResponse response, FilterChain chain, byte[] body,
+                         String fingerprint, String cacheKey, CompletableFuture<StoredResponse> mine)
+            throws ServletException, IOException {
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        StoredResponse stored = null;
+        try {
+            chain.doFilter(new CachedBodyRequest(request, body), wrapper);
+            if (wrapper.getStatus() < HttpStatus.INTERNAL_SERVER_ERROR.value()) {
+                stored = StoredResponse.of(wrapper, fingerprint);
+            }
+        } finally {
+            if (stored != null) {
+                mine.complete(stored);
+                //re-put so the entry is weighed by its body now that it is known
+                responses.asMap().replace(cacheKey, mine, CompletableFuture.completedFuture(stored));
+            } else {
+                responses.asMap().remove(cacheKey, mine);
+                mine.complete(null);
+            }
+            wrapper.copyBodyToResponse();
+        }
+    }
+
+    private static int weight(CompletableFuture<StoredResponse> response) {
+        StoredResponse stored = response.getNow(null);
+        return stored == null ? 1 : stored.body.length + 256;
+    }
+
+    private static final class StoredResponse {
+
+        private final int status;
+
+        private final String contentType;
+
+        private final Map<String, List<String>> headers;
+
+        private final byte[] body;
+
+        private final String fingerprint;
+
+        private StoredResponse(int status, String contentType, Map<String, List<String>> headers, byte[] body, String fingerprint) {
+            this.status = status;
+            this.contentType = contentType;
+            this.headers = headers;
+            this.body = body;
+            this.fingerprint = fingerprint;
+        }
+
+        static StoredResponse of(ContentCachingResponseWrapper response, String fingerprint) {
+            Map<String, List<String>> headers = new LinkedHashMap<>();
+            for (String name : response.getHeaderNames()) {
+                headers.put(name, new ArrayList<>(response.getHeaders(name)));
+            }
+            return new StoredResponse(response.getStatus(), response.getContentType(), headers,
+                    response.getContentAsByteArray(), fingerprint);
+        }
+
+        void writeTo(HttpServletResponse response) throws IOException {
+            response.setStatus(status);
+            headers.forEach((name, values) -> values.forEach(value -> response.addHeader(name, value)));
+            if (contentType != null) {
+                response.setContentType(contentType);
+            }
+            response.setHeader(REPLAYED_HEADER, "true");
+            response.setContentLength(body.length);
+            response.getOutputStream().write(body);
+        }
+    }
+
+    //the body was read up front for the fingerprint, hand the same bytes to the controller
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        private CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream input = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return input.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                //the whole body is in memory, so it is available at once and the listener reads it to the end
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    try {
+                        listener.onDataAvailable();
+                        listener.onAllDataRead();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+
+                @Override
+                public int read() {
+                    return input.read();
+                }
+
+                @Override
+                public int read(byte[] buffer, int offset, int length) {
+                    return input.read(buffer, offset, length);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding();
+            return new BufferedReader(new InputStreamReader(getInputStream(),
+                    encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8));
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.chuman.controller;
+
+import com.chuman.config.SqlStatementCounter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Map;
+
+//counts the sql statements each request runs, published as employee.sql.statements per endpoint.
+//warns when a request runs too many statements or repeats one, the signature of an n+1.
+@Component
+public class SqlCountFilter extends OncePerRequestFilter {
+
+    private static final Log LOGGER = LogFactory.getLog(SqlCountFilter.class);
+
+    private final MeterRegistry meterRegistry;
+
+    private final int maxStatements;
+
+    private final int repeatedThreshold;
+
+    public SqlCountFilter(ObjectProvider<MeterRegistry> meterRegistry,
+                          @Value("${employee.sql.max-statements-per-request:20}") int maxStatements,
+                          @Value("${employee.sql.repeated-statement-threshold:5}") int repeatedThreshold) {
+        this.meterRegistry = meterRegistry.getIfAvailable(SimpleMeterRegistry::new);
+        this.maxStatements = maxStatements;
+        this.repeatedThreshold = repeatedThreshold;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        try (SqlStatementCounter.Scope scope = SqlStatementCounter.begin()) {
+            chain.doFilter(request, response);
+            String uri = endpoint(request);
+            DistributionSummary.builder("employee.sql.statements")
+                    .description("sql statements run by one request")
+                    .tag("method", request.getMethod())
+                    .tag("uri", uri)
+                    .register(meterRegistry)
+                    .record(scope.getCount());
+            if (scope.getCount() > maxStatements) {
+                LOGGER.warn(request.getMethod() + " " + uri + " ran " + scope.getCount() + " sql statements");
+            }
+            for (Map.Entry<String, Integer> repeated : scope.repeated(repeatedThreshold).entrySet()) {
+                LOGGER.warn("possible n+1 in " + request.getMethod() + " " + uri + ", ran " + repeated.getValue()
+                        + " times: " + repeated.getKey());
+            }
+        }
+    }
+
+    //the mapped pattern keeps the tag count bounded, ids are not part of it
+    private static String endpoint(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern != null ? pattern.toString() : "UNKNOWN";
+    }
+}
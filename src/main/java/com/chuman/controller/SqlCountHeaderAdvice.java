@@ -0,0 +1,35 @@
+package com.chuman.controller;
+
+import com.chuman.config.SqlStatementCounter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+//X-SQL-Count on every response body, statements counted so far by SqlCountFilter. off in prod
+@ControllerAdvice
+@ConditionalOnProperty(prefix = "employee.sql.count-header", name = "enabled", havingValue = "true")
+public class SqlCountHeaderAdvice implements ResponseBodyAdvice<Object> {
+
+    static final String SQL_COUNT_HEADER = "X-SQL-Count";
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        int count = SqlStatementCounter.currentCount();
+        if (count >= 0) {
+            response.getHeaders().set(SQL_COUNT_HEADER, String.valueOf(count));
+        }
+        return body;
+    }
+}
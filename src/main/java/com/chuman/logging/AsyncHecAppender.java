@@ -0,0 +1,488 @@
+package com.chuman.logging;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.IThrowableProxy;
+import ch.qos.logback.classic.spi.ThrowableProxyUtil;
+import ch.qos.logback.core.UnsynchronizedAppenderBase;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+//non-blocking front for splunk HEC. logging threads only enqueue into a bounded lock-free queue,
+//a single worker batches by count or linger time and posts gzip'd payloads.
+//with a spool directory configured, batches that fail to send go to disk and are replayed in order.
+//batches HEC refuses for good (HecRejectedException) are dropped and counted as failed, never spooled.
+public class AsyncHecAppender extends UnsynchronizedAppenderBase<ILoggingEvent> {
+
+    public enum OverflowPolicy {
+        DROP, BLOCK
+    }
+
+    private static final JsonFactory JSON = new JsonFactory();
+
+    private String url;
+
+    private String token;
+
+    private String index;
+
+    private String source;
+
+    private String sourcetype;
+
+    private int queueSize = 8192;
+
+    private int batchSize = 100;
+
+    private long lingerMs = 1000;
+
+    private OverflowPolicy overflowPolicy = OverflowPolicy.DROP;
+
+    private long blockTimeoutMs = 100;
+
+    private int connectTimeoutMs = 2000;
+
+    private int readTimeoutMs = 5000;
+
+    private boolean disableCertificateValidation;
+
+    private String spoolDirectory;
+
+    private int spoolSegmentBytes = 16 * 1024 * 1024;
+
+    private int spoolMaxSegments = 16;
+
+    private long retryIntervalMs = 5000;
+
+    private final Queue<ILoggingEvent> queue = new ConcurrentLinkedQueue<>();
+
+    private final AtomicInteger queued = new AtomicInteger();
+
+    private final LongAdder enqueuedEvents = new LongAdder();
+
+    private final LongAdder droppedEvents = new LongAdder();
+
+    private final LongAdder blockedAppends = new LongAdder();
+
+    private final LongAdder sentEvents = new LongAdder();
+
+    private final LongAdder sentBatches = new LongAdder();
+
+    private final LongAdder failedEvents = new LongAdder();
+
+    private final LongAdder failedBatches = new LongAdder();
+
+    private final LongAdder spooledBatches = new LongAdder();
+
+    private final LongAdder replayedBatches = new LongAdder();
+
+    private HecSender sender;
+
+    private HecSpool spool;
+
+    private long nextReplayAt;
+
+    private String host;
+
+    private Thread worker;
+
+    private volatile boolean running;
+
+    @Override
+    public void start() {
+        if (sender == null) {
+            if (url == null || token == null) {
+                addError("url and token are required for appender " + name);
+                return;
+            }
+            try {
+                sender = new HttpHecSender(url, token, connectTimeoutMs, readTimeoutMs, disableCertificateValidation);
+            } catch (IOException e) {
+                addError("invalid HEC url " + url, e);
+                return;
+            }
+        }
+        if (spoolDirectory != null && spool == null) {
+            try {
+                spool = new HecSpool(Paths.get(spoolDirectory), spoolSegmentBytes, spoolMaxSegments);
+            } catch (IOException e) {
+                addError("could not open HEC spool in " + spoolDirectory + ", failed batches will be dropped", e);
+            }
+        }
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (IOException e) {
+            host = "unknown";
+        }
+        nextReplayAt = System.nanoTime();
+        running = true;
+        worker = new Thread(this::drain, "hec-appender-" + name);
+        worker.setDaemon(true);
+        worker.start();
+        super.start();
+    }
+
+    @Override
+    public void stop() {
+        if (!isStarted()) {
+            return;
+        }
+        super.stop();
+        running = false;
+        LockSupport.unpark(worker);
+        try {
+            worker.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (spool != null) {
+            try {
+                spool.close();
+            } catch (IOException e) {
+                addWarn("could not close HEC spool", e);
+            }
+            spool = null;
+        }
+    }
+
+    @Override
+    protected void append(ILoggingEvent event) {
+        event.prepareForDeferredProcessing();
+        if (offer(event)) {
+            return;
+        }
+        if (overflowPolicy == OverflowPolicy.BLOCK) {
+            blockedAppends.increment();
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(blockTimeoutMs);
+            while (System.nanoTime() < deadline) {
+                LockSupport.unpark(worker);
+                LockSupport.parkNanos(100_000);
+                if (offer(event)) {
+                    return;
+                }
+            }
+        }
+        droppedEvents.increment();
+    }
+
+    private boolean offer(ILoggingEvent event) {
+        int size;
+        do {
+            size = queued.get();
+            if (size >= queueSize) {
+                return false;
+            }
+        } while (!queued.compareAndSet(size, size + 1));
+        queue.offer(event);
+        enqueuedEvents.increment();
+        if (size + 1 >= batchSize) {
+            LockSupport.unpark(worker);
+        }
+        return true;
+    }
+
+    private void drain() {
+        long lingerNanos = TimeUnit.MILLISECONDS.toNanos(lingerMs);
+        List<ILoggingEvent> batch = new ArrayList<>(batchSize);
+        long firstEventAt = 0;
+        while (true) {
+            ILoggingEvent event = queue.poll();
+            if (event != null) {
+                queued.decrementAndGet();
+                if (batch.isEmpty()) {
+                    firstEventAt = System.nanoTime();
+                }
+                batch.add(event);
+                if (batch.size() >= batchSize) {
+                    flush(batch);
+                }
+                continue;
+            }
+            if (!batch.isEmpty() && (!running || System.nanoTime() - firstEventAt >= lingerNanos)) {
+                flush(batch);
+                continue;
+            }
+            if (!running) {
+                return;
+            }
+            replay();
+            long wait = batch.isEmpty() ? lingerNanos : lingerNanos - (System.nanoTime() - firstEventAt);
+            if (spool != null && !spool.isEmpty()) {
+                wait = Math.min(wait, TimeUnit.MILLISECONDS.toNanos(retryIntervalMs));
+            }
+            LockSupport.parkNanos(this, Math.max(wait, 1));
+        }
+    }
+
+    private void flush(List<ILoggingEvent> batch) {
+        byte[] payload;
+        try {
+            payload = encode(batch);
+        } catch (IOException e) {
+            failedEvents.add(batch.size());
+            failedBatches.increment();
+            addWarn("dropping " + batch.size() + " events, could not encode batch", e);
+            batch.clear();
+            return;
+        }
+        //while older batches wait on disk new ones queue behind them to keep HEC order
+        if (spool != null && !spool.isEmpty()) {
+            spool(payload, batch.size());
+            replay();
+        } else {
+            try {
+                sender.send(payload);
+                sentEvents.add(batch.size());
+                sentBatches.increment();
+            } catch (HecRejectedException e) {
+                failedEvents.add(batch.size());
+                failedBatches.increment();
+                addWarn("dropping " + batch.size() + " events, HEC rejected the batch", e);
+            } catch (IOException | RuntimeException e) {
+                if (spool != null) {
+                    nextReplayAt = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(retryIntervalMs);
+                    spool(payload, batch.size());
+                } else {
+                    failedEvents.add(batch.size());
+                    failedBatches.increment();
+                    addWarn("dropping " + batch.size() + " events, HEC send failed", e);
+                }
+            }
+        }
+        batch.clear();
+    }
+
+    private void spool(byte[] payload, int events) {
+        try {
+            if (spool.append(payload)) {
+                spooledBatches.increment();
+                return;
+            }
+        } catch (IOException e) {
+            addWarn("could not spool HEC batch", e);
+        }
+        failedEvents.add(events);
+        failedBatches.increment();
+    }
+
+    //sends spooled batches oldest first, backing off for retryIntervalMs after a failure.
+    //a rejected batch is committed past so it cannot hold back the ones behind it
+    private void replay() {
+        if (spool == null || System.nanoTime() - nextReplayAt < 0) {
+            return;
+        }
+        byte[] payload;
+        while ((payload = spool.peek()) != null) {
+            try {
+                try {
+                    sender.send(payload);
+                    replayedBatches.increment();
+                } catch (HecRejectedException e) {
+                    int events = countEvents(payload);
+                    failedEvents.add(events);
+                    failedBatches.increment();
+                    addWarn("dropping " + events + " spooled events, HEC rejected the batch", e);
+                }
+                spool.commit();
+            } catch (IOException | RuntimeException e) {
+                nextReplayAt = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(retryIntervalMs);
+                return;
+            }
+        }
+    }
+
+    //one line per event, only read back for the rare batch HEC rejects
+    private static int countEvents(byte[] payload) {
+        int events = 0;
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(payload))) {
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                for (int i = 0; i < read; i++) {
+                    if (buffer[i] == '\n') {
+                        events++;
+                    }
+                }
+            }
+        } catch (IOException e) {
+            //a spooled record passed its crc, a payload that does not inflate still counts as one lost batch
+        }
+        return events;
+    }
+
+    //newline separated HEC event objects, gzip'd as one body
+    byte[] encode(List<ILoggingEvent> batch) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(batch.size() * 256);
+        try (JsonGenerator json = JSON.createGenerator(new GZIPOutputStream(bytes))) {
+            for (ILoggingEvent event : batch) {
+                json.writeStartObject();
+                json.writeNumberField("time", event.getTimeStamp() / 1000.0);
+                json.writeStringField("host", host);
+                if (index != null) {
+                    json.writeStringField("index", index);
+                }
+                if (source != null) {
+                    json.writeStringField("source", source);
+                }
+                if (sourcetype != null) {
+                    json.writeStringField("sourcetype", sourcetype);
+                }
+                json.writeObjectFieldStart("event");
+                json.writeStringField("severity", event.getLevel().toString());
+                json.writeStringField("logger", event.getLoggerName());
+                json.writeStringField("thread", event.getThreadName());
+                json.writeStringField("message", event.getFormattedMessage());
+                IThrowableProxy throwable = event.getThrowableProxy();
+                if (throwable != null) {
+                    json.writeStringField("exception", ThrowableProxyUtil.asString(throwable));
+                }
+                Map<String, String> mdc = event.getMDCPropertyMap();
+                if (mdc != null && !mdc.isEmpty()) {
+                    json.writeObjectFieldStart("mdc");
+                    for (Map.Entry<String, String> entry : mdc.entrySet()) {
+                        json.writeStringField(entry.getKey(), entry.getValue());
+                    }
+                    json.writeEndObject();
+                }
+                json.writeEndObject();
+                json.writeEndObject();
+                json.writeRaw('\n');
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    void setSender(HecSender sender) {
+        this.sender = sender;
+    }
+
+    public long getEnqueuedEvents() {
+        return enqueuedEvents.sum();
+    }
+
+    public long getDroppedEvents() {
+        return droppedEvents.sum();
+    }
+
+    public long getBlockedAppends() {
+        return blockedAppends.sum();
+    }
+
+    public long getSentEvents() {
+        return sentEvents.sum();
+    }
+
+    public long getSentBatches() {
+        return sentBatches.sum();
+    }
+
+    public long getFailedEvents() {
+        return failedEvents.sum();
+    }
+
+    public long getFailedBatches() {
+        return failedBatches.sum();
+    }
+
+    public int getQueueDepth() {
+        return queued.get();
+    }
+
+    public long getSpooledBatches() {
+        return spooledBatches.sum();
+    }
+
+    public long getReplayedBatches() {
+        return replayedBatches.sum();
+    }
+
+    public long getSpoolDroppedBatches() {
+        HecSpool current = spool;
+        return current == null ? 0 : current.getDroppedBatches();
+    }
+
+    public void setUrl(String url) {
+        this.url = url;
+    }
+
+    public void setToken(String token) {
+        this.token = token;
+    }
+
+    public void setIndex(String index) {
+        this.index = index;
+    }
+
+    public void setSource(String source) {
+        this.source = source;
+    }
+
+    public void setSourcetype(String sourcetype) {
+        this.sourcetype = sourcetype;
+    }
+
+    public void setQueueSize(int queueSize) {
+        this.queueSize = queueSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public void setLingerMs(long lingerMs) {
+        this.lingerMs = lingerMs;
+    }
+
+    public void setOverflowPolicy(OverflowPolicy overflowPolicy) {
+        this.overflowPolicy = overflowPolicy;
+    }
+
+    public void setBlockTimeoutMs(long blockTimeoutMs) {
+        this.blockTimeoutMs = blockTimeoutMs;
+    }
+
+    public void setConnectTimeoutMs(int connectTimeoutMs) {
+        this.connectTimeoutMs = connectTimeoutMs;
+    }
+
+    public void setReadTimeoutMs(int readTimeoutMs) {
+        this.readTimeoutMs = readTimeoutMs;
+    }
+
+    public void setDisableCertificateValidation(boolean disableCertificateValidation) {
+        this.disableCertificateValidation = disableCertificateValidation;
+    }
+
+    public void setSpoolDirectory(String spoolDirectory) {
+        this.spoolDirectory = spoolDirectory;
+    }
+
+    public void setSpoolSegmentBytes(int spoolSegmentBytes) {
+        this.spoolSegmentBytes = spoolSegmentBytes;
+    }
+
+    public void setSpoolMaxSegments(int spoolMaxSegments) {
+        this.spoolMaxSegments = spoolMaxSegments;
+    }
+
+    public void setRetryIntervalMs(long retryIntervalMs) {
+        this.retryIntervalMs = retryIntervalMs;
+    }
+}
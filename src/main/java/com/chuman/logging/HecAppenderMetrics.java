@@ -0,0 +1,90 @@
+package com.chuman.logging;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.ILoggerFactory;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.function.ToDoubleFunction;
+
+//publishes the counters of every AsyncHecAppender on the logback context, tagged with the appender name.
+//hec.events counts events by outcome, hec.batches counts the batches that went through the spool, they are spooled whole
+@Component
+public class HecAppenderMetrics implements MeterBinder {
+
+    private final LoggerContext loggerContext;
+
+    public HecAppenderMetrics() {
+        ILoggerFactory factory = LoggerFactory.getILoggerFactory();
+        this.loggerContext = factory instanceof LoggerContext ? (LoggerContext) factory : null;
+    }
+
+    HecAppenderMetrics(LoggerContext loggerContext) {
+        this.loggerContext = loggerContext;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (loggerContext == null) {
+            return;
+        }
+        //an appender referenced from several loggers is bound once
+        Set<AsyncHecAppender> appenders = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Logger logger : loggerContext.getLoggerList()) {
+            Iterator<Appender<ILoggingEvent>> attached = logger.iteratorForAppenders();
+            while (attached.hasNext()) {
+                Appender<ILoggingEvent> appender = attached.next();
+                if (appender instanceof AsyncHecAppender && appenders.add((AsyncHecAppender) appender)) {
+                    bind(registry, (AsyncHecAppender) appender);
+                }
+            }
+        }
+    }
+
+    private static void bind(MeterRegistry registry, AsyncHecAppender appender) {
+        events(registry, appender, "enqueued", AsyncHecAppender::getEnqueuedEvents);
+        events(registry, appender, "sent", AsyncHecAppender::getSentEvents);
+        events(registry, appender, "dropped", AsyncHecAppender::getDroppedEvents);
+        events(registry, appender, "failed", AsyncHecAppender::getFailedEvents);
+        batches(registry, appender, "sent", AsyncHecAppender::getSentBatches);
+        batches(registry, appender, "failed", AsyncHecAppender::getFailedBatches);
+        batches(registry, appender, "spooled", AsyncHecAppender::getSpooledBatches);
+        batches(registry, appender, "replayed", AsyncHecAppender::getReplayedBatches);
+        batches(registry, appender, "spool_dropped", AsyncHecAppender::getSpoolDroppedBatches);
+        FunctionCounter.builder("hec.appends.blocked", appender, AsyncHecAppender::getBlockedAppends)
+                .description("appends that waited for queue space under the BLOCK overflow policy")
+                .tag("appender", appender.getName())
+                .register(registry);
+        Gauge.builder("hec.queue.depth", appender, AsyncHecAppender::getQueueDepth)
+                .description("events waiting to be batched")
+                .tag("appender", appender.getName())
+                .register(registry);
+    }
+
+    private static void events(MeterRegistry registry, AsyncHecAppender appender, String outcome,
+                               ToDoubleFunction<AsyncHecAppender> count) {
+        FunctionCounter.builder("hec.events", appender, count)
+                .tag("appender", appender.getName())
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    private static void batches(MeterRegistry registry, AsyncHecAppender appender, String outcome,
+                                ToDoubleFunction<AsyncHecAppender> count) {
+        FunctionCounter.builder("hec.batches", appender, count)
+                .tag("appender", appender.getName())
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+}
@@ -0,0 +1,19 @@
+package com.chuman.logging;
+
+import java.io.IOException;
+
+//HEC refused the batch for good, e.g. a bad token, an unknown index or a malformed payload. sending it again fails the
+//same way, so the appender drops it instead of spooling it
+public class HecRejectedException extends IOException {
+
+    private final int status;
+
+    public HecRejectedException(int status, String message) {
+        super(message);
+        this.status = status;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+}
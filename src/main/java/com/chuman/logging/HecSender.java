@@ -0,0 +1,10 @@
+package com.chuman.logging;
+
+import java.io.IOException;
+
+//delivers one gzip'd batch of HEC events, any exception means the batch was not accepted.
+//HecRejectedException marks a batch HEC will never accept, anything else is worth retrying
+public interface HecSender {
+
+    void send(byte[] gzippedBatch) throws IOException;
+}
@@ -0,0 +1,276 @@
+package com.chuman.logging;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+//append-only spool of HEC batches in memory-mapped segment files, replayed in order once HEC recovers.
+//record layout is [length][crc32][payload]; the length is written last so a torn record reads as end of data.
+//the read offset is persisted with an atomic rename after every commit, so a crash replays at most one batch twice.
+//not thread safe, owned by the appender worker thread.
+public class HecSpool implements AutoCloseable {
+
+    private static final String SEGMENT_PREFIX = "segment-";
+
+    private static final String SEGMENT_SUFFIX = ".spool";
+
+    private static final String OFFSET_FILE = "spool.offset";
+
+    private static final int HEADER_BYTES = 8;
+
+    private final Path directory;
+
+    private final int segmentBytes;
+
+    private final int maxSegments;
+
+    private final Deque<Segment> segments = new ArrayDeque<>();
+
+    private int readPosition;
+
+    private long droppedBatches;
+
+    private long droppedSegments;
+
+    public HecSpool(Path directory, int segmentBytes, int maxSegments) throws IOException {
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.maxSegments = Math.max(2, maxSegments);
+        Files.createDirectories(directory);
+        recover();
+    }
+
+    public boolean isEmpty() {
+        return peekRecord() == null;
+    }
+
+    //false when the payload can never fit a segment
+    public boolean append(byte[] payload) throws IOException {
+        if (payload.length + HEADER_BYTES > segmentBytes) {
+            droppedBatches++;
+            return false;
+        }
+        Segment tail = segments.peekLast();
+        if (tail == null || tail.writePosition + HEADER_BYTES + payload.length > segmentBytes) {
+            tail = rotate();
+        }
+        MappedByteBuffer buffer = tail.buffer;
+        int position = tail.writePosition;
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        ByteBuffer writer = buffer.duplicate();
+        writer.position(position + HEADER_BYTES);
+        writer.put(payload);
+        buffer.putInt(position + 4, (int) crc.getValue());
+        buffer.putInt(position, payload.length);
+        tail.writePosition = position + HEADER_BYTES + payload.length;
+        return true;
+    }
+
+    //oldest unreplayed batch, or null when the spool is drained
+    public byte[] peek() {
+        ByteBuffer record = peekRecord();
+        if (record == null) {
+            return null;
+        }
+        byte[] payload = new byte[record.remaining()];
+        record.get(payload);
+        return payload;
+    }
+
+    //marks the batch returned by peek as delivered
+    public void commit() throws IOException {
+        ByteBuffer record = peekRecord();
+        if (record == null) {
+            return;
+        }
+        readPosition += HEADER_BYTES + record.remaining();
+        writeOffset();
+    }
+
+    public int segmentCount() {
+        return segments.size();
+    }
+
+    public long getDroppedBatches() {
+        return droppedBatches;
+    }
+
+    public long getDroppedSegments() {
+        return droppedSegments;
+    }
+
+    private ByteBuffer peekRecord() {
+        while (true) {
+            Segment head = segments.peekFirst();
+            if (head == null) {
+                return null;
+            }
+            if (readPosition < head.writePosition) {
+                int length = head.buffer.getInt(readPosition);
+                return region(head.buffer, readPosition + HEADER_BYTES, length);
+            }
+            if (segments.size() == 1) {
+                return null;
+            }
+            //head is fully replayed and a newer segment exists
+            try {
+                dropHead();
+                writeOffset();
+            } catch (IOException e) {
+                return null;
+            }
+        }
+    }
+
+    private Segment rotate() throws IOException {
+        long sequence = segments.isEmpty() ? 0 : segments.peekLast().sequence + 1;
+        while (segments.size() >= maxSegments) {
+            //disk budget exhausted, the oldest unreplayed batches are lost
+            droppedBatches += countRecords(segments.peekFirst(), readPosition);
+            droppedSegments++;
+            dropHead();
+        }
+        Segment segment = Segment.open(segmentPath(sequence), sequence, segmentBytes);
+        segments.addLast(segment);
+        writeOffset();
+        return segment;
+    }
+
+    private void dropHead() throws IOException {
+        Segment head = segments.removeFirst();
+        head.close();
+        Files.deleteIfExists(segmentPath(head.sequence));
+        readPosition = 0;
+    }
+
+    private void recover() throws IOException {
+        long readSequence = -1;
+        Path offset = directory.resolve(OFFSET_FILE);
+        if (Files.exists(offset)) {
+            String[] parts = Files.readString(offset, StandardCharsets.UTF_8).trim().split(" ");
+            if (parts.length == 2) {
+                readSequence = Long.parseLong(parts[0]);
+                readPosition = Integer.parseInt(parts[1]);
+            }
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            long[] sequences = files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX))
+                    .mapToLong(name -> Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length())))
+                    .sorted()
+                    .toArray();
+            for (long sequence : sequences) {
+                if (sequence < readSequence) {
+                    Files.deleteIfExists(segmentPath(sequence));
+                    continue;
+                }
+                Segment segment = Segment.open(segmentPath(sequence), sequence, segmentBytes);
+                segment.writePosition = scanEnd(segment.buffer);
+                segments.addLast(segment);
+            }
+        }
+        Segment head = segments.peekFirst();
+        if (head == null || head.sequence != readSequence || readPosition > head.writePosition) {
+            readPosition = 0;
+        }
+    }
+
+    //walks valid records, stopping at the zero length end marker or a torn record
+    private static int scanEnd(MappedByteBuffer buffer) {
+        int position = 0;
+        while (position + HEADER_BYTES <= buffer.capacity()) {
+            int length = buffer.getInt(position);
+            if (length <= 0 || position + HEADER_BYTES + length > buffer.capacity()) {
+                break;
+            }
+            CRC32 crc = new CRC32();
+            crc.update(region(buffer, position + HEADER_BYTES, length));
+            if ((int) crc.getValue() != buffer.getInt(position + 4)) {
+                break;
+            }
+            position += HEADER_BYTES + length;
+        }
+        return position;
+    }
+
+    private static ByteBuffer region(ByteBuffer buffer, int offset, int length) {
+        ByteBuffer region = buffer.duplicate();
+        region.limit(offset + length);
+        region.position(offset);
+        return region.slice();
+    }
+
+    private static long countRecords(Segment segment, int from) {
+        long count = 0;
+        int position = from;
+        while (position < segment.writePosition) {
+            position += HEADER_BYTES + segment.buffer.getInt(position);
+            count++;
+        }
+        return count;
+    }
+
+    private void writeOffset() throws IOException {
+        Segment head = segments.peekFirst();
+        String value = head == null ? "" : head.sequence + " " + readPosition;
+        Path temp = directory.resolve(OFFSET_FILE + ".tmp");
+        Files.writeString(temp, value, StandardCharsets.UTF_8);
+        Files.move(temp, directory.resolve(OFFSET_FILE), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private Path segmentPath(long sequence) {
+        return directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, sequence, SEGMENT_SUFFIX));
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (Segment segment : segments) {
+            segment.buffer.force();
+            segment.close();
+        }
+        segments.clear();
+    }
+
+    private static final class Segment {
+
+        private final long sequence;
+
+        private final FileChannel channel;
+
+        private final MappedByteBuffer buffer;
+
+        private int writePosition;
+
+        private Segment(long sequence, FileChannel channel, MappedByteBuffer buffer) {
+            this.sequence = sequence;
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+
+        static Segment open(Path path, long sequence, int segmentBytes) throws IOException {
+            try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+                if (file.length() < segmentBytes) {
+                    file.setLength(segmentBytes);
+                }
+                FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+                return new Segment(sequence, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes));
+            }
+        }
+
+        void close() throws IOException {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.chuman.logging;
+
+import javax.net.ssl.HttpsURLConnection;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.TrustManager;
+import javax.net.ssl.X509TrustManager;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.security.GeneralSecurityException;
+import java.security.cert.X509Certificate;
+
+//posts gzip'd batches to the splunk http event collector
+public class HttpHecSender implements HecSender {
+
+    private static final String EVENT_PATH = "/services/collector/event";
+
+    private final URL url;
+
+    private final String token;
+
+    private final int connectTimeoutMs;
+
+    private final int readTimeoutMs;
+
+    private final SSLContext trustAllContext;
+
+    public HttpHecSender(String url, String token, int connectTimeoutMs, int readTimeoutMs,
+                         boolean disableCertificateValidation) throws IOException {
+        String base = url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+        this.url = new URL(base.endsWith(EVENT_PATH) ? base : base + EVENT_PATH);
+        this.token = token;
+        this.connectTimeoutMs = connectTimeoutMs;
+        this.readTimeoutMs = readTimeoutMs;
+        this.trustAllContext = disableCertificateValidation ? trustAllContext() : null;
+    }
+
+    @Override
+    public void send(byte[] gzippedBatch) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        if (trustAllContext != null && connection instanceof HttpsURLConnection) {
+            HttpsURLConnection https = (HttpsURLConnection) connection;
+            https.setSSLSocketFactory(trustAllContext.getSocketFactory());
+            https.setHostnameVerifier((hostname, session) -> true);
+        }
+        connection.setConnectTimeout(connectTimeoutMs);
+        connection.setReadTimeout(readTimeoutMs);
+        connection.setDoOutput(true);
+        connection.setRequestMethod("POST");
+        connection.setRequestProperty("Authorization", "Splunk " + token);
+        connection.setRequestProperty("Content-Type", "application/json");
+        connection.setRequestProperty("Content-Encoding", "gzip");
+        connection.setFixedLengthStreamingMode(gzippedBatch.length);
+        try (OutputStream body = connection.getOutputStream()) {
+            body.write(gzippedBatch);
+        }
+        int status = connection.getResponseCode();
+        //drain the body so the keep-alive connection can be reused
+        try (InputStream response = status < 400 ? connection.getInputStream() : connection.getErrorStream()) {
+            if (response != null) {
+                response.readAllBytes();
+            }
+        }
+        //408, 429 and 5xx are transient, any other 4xx would come back on every retry
+        if (status / 100 == 4 && status != 408 && status != 429) {
+            throw new HecRejectedException(status, "HEC rejected batch with " + status + " for " + url);
+        }
+        if (status / 100 != 2) {
+            throw new IOException("HEC responded " + status + " for " + url);
+        }
+    }
+
+    private static SSLContext trustAllContext() throws IOException {
+        try {
+            SSLContext context = SSLContext.getInstance("TLS");
+            context.init(null, new TrustManager[]{new X509TrustManager() {
+                @Override
+                public void checkClientTrusted(X509Certificate[] chain, String authType) {
+                }
+
+                @Override
+                public void checkServerTrusted(X509Certificate[] chain, String authType) {
+                }
+
+                @Override
+                public X509Certificate[] getAcceptedIssuers() {
+                    return new X509Certificate[0];
+                }
+            }}, null);
+            return context;
+        } catch (GeneralSecurityException e) {
+            throw new IOException("could not create trust all ssl context", e);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.chuman.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+//outcome of one item of a bulk create, index is the position in the request list
+@Getter
+@AllArgsConstructor
+public class BulkEmployeeResult {
+
+    public enum Status {
+        CREATED, DUPLICATE, INVALID, FAILED
+    }
+
+    private int index;
+
+    private String email;
+
+    private Status status;
+
+    private Long id;
+
+    private String message;
+}
@@ -0,0 +1,23 @@
+package com.chuman.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+//one committed employee write as published on the change stream
+@Getter
+@AllArgsConstructor
+public class EmployeeChange {
+
+    public enum Type {
+        CREATED, UPDATED, DELETED
+    }
+
+    private long sequence;
+
+    private Type type;
+
+    private long employeeId;
+
+    //state after the write, null for deletes and partial updates where the service never read the row
+    private EmployeeSummary employee;
+}
@@ -0,0 +1,42 @@
+package com.chuman.model;
+
+import lombok.Getter;
+
+//row count, version sum and max id over a keyset page; any create, update or delete in the range changes one of them
+@Getter
+public class EmployeeCollectionVersion {
+
+    private final long count;
+
+    private final long versionSum;
+
+    private final long maxId;
+
+    private final boolean hasNext;
+
+    //jpql constructor expression
+    public EmployeeCollectionVersion(Long count, Long versionSum, Long maxId) {
+        this(count, versionSum, maxId, false);
+    }
+
+    public EmployeeCollectionVersion(long count, long versionSum, long maxId, boolean hasNext) {
+        this.count = count;
+        this.versionSum = versionSum;
+        this.maxId = maxId;
+        this.hasNext = hasNext;
+    }
+
+    public EmployeeCollectionVersion withHasNext(boolean hasNext) {
+        return new EmployeeCollectionVersion(count, versionSum, maxId, hasNext);
+    }
+
+    public static EmployeeCollectionVersion of(EmployeePage page) {
+        long versionSum = 0;
+        long maxId = 0;
+        for (EmployeeSummary employee : page.getContent()) {
+            versionSum += employee.getVersion();
+            maxId = Math.max(maxId, employee.getId());
+        }
+        return new EmployeeCollectionVersion(page.getContent().size(), versionSum, maxId, page.getNextCursor() != null);
+    }
+}
@@ -0,0 +1,19 @@
+package com.chuman.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+//one page of a delta sync in write order. the watermark is the since of the next call,
+//hasMore says the next page is ready now instead of after new writes
+@Getter
+@AllArgsConstructor
+public class EmployeeDelta {
+
+    private List<EmployeeRevision> changes;
+
+    private String watermark;
+
+    private boolean hasMore;
+}
@@ -0,0 +1,38 @@
+package com.chuman.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.Instant;
+
+//one entry of a delta sync: an employee as of its last write, or the tombstone of a deleted one
+@Getter
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class EmployeeRevision {
+
+    private long id;
+
+    private String firstName;
+
+    private String lastName;
+
+    private String email;
+
+    private Long version;
+
+    private Instant updatedAt;
+
+    private boolean deleted;
+
+    //built by the jpql constructor expression over live rows
+    public EmployeeRevision(long id, String firstName, String lastName, String email, long version, Instant updatedAt) {
+        this(id, firstName, lastName, email, version, updatedAt, false);
+    }
+
+    //built over tombstones
+    public EmployeeRevision(long id, Instant deletedAt) {
+        this(id, null, null, null, null, deletedAt, true);
+    }
+}
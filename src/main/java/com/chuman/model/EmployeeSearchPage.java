@@ -0,0 +1,16 @@
+package com.chuman.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+//one page of search matches, nextOffset is null on the last page
+@Getter
+@AllArgsConstructor
+public class EmployeeSearchPage {
+
+    private List<EmployeeSummary> content;
+
+    private Integer nextOffset;
+}
@@ -0,0 +1,25 @@
+package com.chuman.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+//detached read model of an employee, built by jpql constructor expressions or from a saved entity
+@Getter
+@AllArgsConstructor
+public class EmployeeSummary {
+
+    private long id;
+
+    private String firstName;
+
+    private String lastName;
+
+    private String email;
+
+    private long version;
+
+    public static EmployeeSummary of(EmployeeDTO employee) {
+        return new EmployeeSummary(employee.getId(), employee.getFirstName(), employee.getLastName(),
+                employee.getEmail(), employee.getVersion());
+    }
+}
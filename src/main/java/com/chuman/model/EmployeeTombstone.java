@@ -0,0 +1,41 @@
+package com.chuman.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Persistable;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
+import java.time.Instant;
+
+//left behind by a delete so a delta sync can report it, purged once it is older than the sync retention
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity(name = "EmployeeTombstone")
+@Table(name = "employee_tombstones", indexes = @Index(name = "idx_employee_tombstones_deleted_at", columnList = "deleted_at, employee_id"))
+public class EmployeeTombstone implements Persistable<Long> {
+
+    @Id
+    @Column(name = "employee_id")
+    private long employeeId;
+
+    //datetime(6) like EmployeeDTO.updatedAt, the delta sync pages both on the same microsecond watermark
+    @Column(name = "deleted_at", nullable = false, columnDefinition = "datetime(6)")
+    private Instant deletedAt;
+
+    @Override
+    public Long getId() {
+        return employeeId;
+    }
+
+    //ids are never reused, so save persists straight away instead of selecting the assigned id first
+    @Override
+    public boolean isNew() {
+        return true;
+    }
+}
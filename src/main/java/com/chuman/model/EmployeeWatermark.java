@@ -0,0 +1,60 @@
+package com.chuman.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+//delta sync position: every write up to (time, id) was delivered by a call made at issuedAt.
+//the token is "<time micros>-<id>-<issued micros>", "0" starts a full sync.
+@Getter
+@AllArgsConstructor
+public class EmployeeWatermark {
+
+    public static final EmployeeWatermark INITIAL = new EmployeeWatermark(Instant.EPOCH, 0L, Instant.EPOCH);
+
+    private Instant time;
+
+    private long id;
+
+    private Instant issuedAt;
+
+    public boolean isInitial() {
+        return issuedAt.equals(Instant.EPOCH);
+    }
+
+    //IllegalArgumentException for anything this class did not write
+    public static EmployeeWatermark parse(String token) {
+        String value = token.trim();
+        if (value.equals("0")) {
+            return INITIAL;
+        }
+        String[] parts = value.split("-");
+        if (parts.length != 3) {
+            throw new IllegalArgumentException("not a watermark: " + token);
+        }
+        try {
+            EmployeeWatermark watermark = new EmployeeWatermark(fromMicros(Long.parseLong(parts[0])), Long.parseLong(parts[1]),
+                    fromMicros(Long.parseLong(parts[2])));
+            if (watermark.isInitial()) {
+                throw new IllegalArgumentException("not a watermark: " + token);
+            }
+            return watermark;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("not a watermark: " + token, e);
+        }
+    }
+
+    public String toToken() {
+        return toMicros(time) + "-" + id + "-" + toMicros(issuedAt);
+    }
+
+    private static long toMicros(Instant instant) {
+        return ChronoUnit.MICROS.between(Instant.EPOCH, instant);
+    }
+
+    private static Instant fromMicros(long micros) {
+        return Instant.EPOCH.plus(micros, ChronoUnit.MICROS);
+    }
+}
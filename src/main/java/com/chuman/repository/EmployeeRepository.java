@@ -1,32 +1,135 @@
 package com.chuman.repository;
 
+import com.chuman.config.CacheConfig;
+import com.chuman.model.EmployeeCollectionVersion;
 import com.chuman.model.EmployeeDTO;
+import com.chuman.model.EmployeeRevision;
+import com.chuman.model.EmployeeSummary;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.QueryHints.HINT_CACHE_REGION;
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
 
+//queries run read-only unless a method says otherwise, so they can be served by the replica pool
+@Transactional(readOnly = true)
 public interface EmployeeRepository extends JpaRepository<EmployeeDTO, Long> {
     //Repository
     //custom query method
+    @QueryHints({@QueryHint(name = HINT_CACHEABLE, value = "true"), @QueryHint(name = HINT_CACHE_REGION, value = CacheConfig.EMPLOYEE_QUERY_REGION)})
     Optional<EmployeeDTO> findByEmail(String email);
 
+    //single round trip duplicate check for bulk creates
+    @Query("select e.email from Employee e where e.email in :emails")
+    List<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
+    //emails only, used to warm the in-memory email index at startup
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "1000"), @QueryHint(name = HINT_READONLY, value = "true")})
+    @Query("select e.email from Employee e")
+    Stream<String> streamAllEmails();
+
+    //full table stream of summaries for the export and the search index warm up, rows come off the JDBC cursor
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "1000"), @QueryHint(name = HINT_READONLY, value = "true")})
+    @Query("select new com.chuman.model.EmployeeSummary(e.id, e.firstName, e.lastName, e.email, e.version) from Employee e order by e.id")
+    Stream<EmployeeSummary> streamAllSummaries();
+
+    //by id reads as a projection, nothing enters the persistence context
+    @Query("select new com.chuman.model.EmployeeSummary(e.id, e.firstName, e.lastName, e.email, e.version) from Employee e where e.id = :id")
+    Optional<EmployeeSummary> findSummaryById(@Param("id") long id);
+
+    //prefix search while the search index is not warm yet, the prefix is escaped with !
+    @Query("select new com.chuman.model.EmployeeSummary(e.id, e.firstName, e.lastName, e.email, e.version) from Employee e "
+            + "where lower(e.firstName) like :prefix escape '!' or lower(e.lastName) like :prefix escape '!' "
+            + "or lower(e.email) like :prefix escape '!' order by e.id")
+    List<EmployeeSummary> searchByPrefix(@Param("prefix") String prefix, Pageable pageable);
+
     //custom query on jpql with index parameters
+    @QueryHints({@QueryHint(name = HINT_CACHEABLE, value = "true"), @QueryHint(name = HINT_CACHE_REGION, value = CacheConfig.EMPLOYEE_QUERY_REGION)})
     @Query("select e from Employee e where e.firstName = ?1 and e.lastName = ?2")
     EmployeeDTO findByCustomQuery(String firstName, String lastName);
 
     //named parameters
+    @QueryHints({@QueryHint(name = HINT_CACHEABLE, value = "true"), @QueryHint(name = HINT_CACHE_REGION, value = CacheConfig.EMPLOYEE_QUERY_REGION)})
     @Query("select e from Employee e where e.firstName =:firstName and e.lastName =:lastName")
     EmployeeDTO findByCustomQueryNamedParams(@Param("firstName") String firstName, @Param("lastName") String lastName);
 
-    //Sql native query
+    //Sql native query, its cached results are evicted on every write by EmployeeQueryCache
+    @QueryHints({@QueryHint(name = HINT_CACHEABLE, value = "true"), @QueryHint(name = HINT_CACHE_REGION, value = CacheConfig.EMPLOYEE_NATIVE_QUERY_REGION)})
     @Query(value = "select * from employees e where e.first_name = ?1 and e.last_name = ?2",nativeQuery = true)
     EmployeeDTO findByCustomNativeSql(String firstName, String lastName);
 
     //Sql native query with named parameters
+    @QueryHints({@QueryHint(name = HINT_CACHEABLE, value = "true"), @QueryHint(name = HINT_CACHE_REGION, value = CacheConfig.EMPLOYEE_NATIVE_QUERY_REGION)})
     @Query(value = "select * from employees e where e.first_name =:firstName and e.last_name =:lastName", nativeQuery = true)
     EmployeeDTO findByCustomNativeSqlNamedParams(@Param("firstName") String firstName, @Param("lastName") String lastName);
+
+    //partial update in a single statement, a null parameter keeps the current column value
+    @Transactional
+    default int patchEmployee(long id, String firstName, String lastName, String email, Long version) {
+        return patchEmployee(id, firstName, lastName, email, version, Instant.now().truncatedTo(ChronoUnit.MICROS));
+    }
+
+    //bulk updates skip @PreUpdate, so the sync timestamp is set here
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("update Employee e set e.firstName = coalesce(:firstName, e.firstName), e.lastName = coalesce(:lastName, e.lastName), "
+            + "e.email = coalesce(:email, e.email), e.version = e.version + 1, e.updatedAt = :updatedAt "
+            + "where e.id = :id and (:version is null or e.version = :version)")
+    int patchEmployee(@Param("id") long id, @Param("firstName") String firstName, @Param("lastName") String lastName,
+                      @Param("email") String email, @Param("version") Long version, @Param("updatedAt") Instant updatedAt);
+
+    //row locked read for a read-modify-write, the primary answers and no other write lands between load and flush
+    @Transactional
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select e from Employee e where e.id = :id")
+    Optional<EmployeeDTO> findForUpdateById(@Param("id") long id);
+
+    //conditional delete for If-Match, zero rows when the version moved on
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("delete from Employee e where e.id = :id and e.version = :version")
+    int deleteByIdAndVersion(@Param("id") long id, @Param("version") long version);
+
+    //version only, lets conditional requests answer 304 without hydrating the entity
+    @Query("select e.version from Employee e where e.id = :id")
+    Optional<Long> findVersionById(@Param("id") long id);
+
+    //ids of a keyset page, answered from the primary key index
+    @Query("select e.id from Employee e where e.id > :after order by e.id")
+    List<Long> findIdsAfter(@Param("after") long after, Pageable pageable);
+
+    //collection etag input for the ids in (after, upTo]
+    @Query("select new com.chuman.model.EmployeeCollectionVersion(count(e), coalesce(sum(e.version), 0L), coalesce(max(e.id), 0L)) "
+            + "from Employee e where e.id > :after and e.id <= :upTo")
+    EmployeeCollectionVersion findCollectionVersion(@Param("after") long after, @Param("upTo") long upTo);
+
+    //keyset pagination on the primary key, pageable only carries the limit so no OFFSET scan
+    @Query("select new com.chuman.model.EmployeeSummary(e.id, e.firstName, e.lastName, e.email, e.version) from Employee e "
+            + "where e.id > :after order by e.id")
+    List<EmployeeSummary> findSummariesAfter(@Param("after") long after, Pageable pageable);
+
+    //rows written after the (updatedAt, id) watermark up to the horizon, a range scan on idx_employees_updated_at
+    @Query("select new com.chuman.model.EmployeeRevision(e.id, e.firstName, e.lastName, e.email, e.version, e.updatedAt) "
+            + "from Employee e where e.updatedAt >= :since and e.updatedAt <= :until and (e.updatedAt > :since or e.id > :afterId) "
+            + "order by e.updatedAt, e.id")
+    List<EmployeeRevision> findChangedSince(@Param("since") Instant since, @Param("afterId") long afterId,
+                                            @Param("until") Instant until, Pageable pageable);
 }
@@ -0,0 +1,29 @@
+package com.chuman.repository;
+
+import com.chuman.model.EmployeeRevision;
+import com.chuman.model.EmployeeTombstone;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+@Transactional(readOnly = true)
+public interface EmployeeTombstoneRepository extends JpaRepository<EmployeeTombstone, Long> {
+
+    //tombstones after the (deletedAt, employeeId) watermark up to the horizon, a range scan on idx_employee_tombstones_deleted_at
+    @Query("select new com.chuman.model.EmployeeRevision(t.employeeId, t.deletedAt) from EmployeeTombstone t "
+            + "where t.deletedAt >= :since and t.deletedAt <= :until and (t.deletedAt > :since or t.employeeId > :afterId) "
+            + "order by t.deletedAt, t.employeeId")
+    List<EmployeeRevision> findDeletedSince(@Param("since") Instant since, @Param("afterId") long afterId,
+                                            @Param("until") Instant until, Pageable pageable);
+
+    @Transactional
+    @Modifying
+    @Query("delete from EmployeeTombstone t where t.deletedAt < :before")
+    int deleteDeletedBefore(@Param("before") Instant before);
+}
@@ -1,19 +1,52 @@
 package com.chuman.service;
 
+import com.chuman.model.BulkEmployeeResult;
+import com.chuman.model.EmployeeCollectionVersion;
 import com.chuman.model.EmployeeDTO;
+import com.chuman.model.EmployeeDelta;
+import com.chuman.model.EmployeePage;
+import com.chuman.model.EmployeeSearchPage;
+import com.chuman.model.EmployeeSummary;
+import com.chuman.model.EmployeeWatermark;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface EmployeeService {
 
     EmployeeDTO saveEmployee(EmployeeDTO employees);
 
+    List<BulkEmployeeResult> saveEmployees(List<EmployeeDTO> employees);
+
     List<EmployeeDTO> getAllEmployee();
 
+    EmployeePage getEmployeePage(long afterId, int limit);
+
+    EmployeeCollectionVersion getEmployeePageVersion(long afterId, int limit);
+
+    void exportEmployees(Consumer<EmployeeSummary> consumer);
+
+    EmployeeSearchPage searchEmployees(String query, int offset, int limit);
+
+    //empty when the watermark is too old to be sure no delete was purged since
+    Optional<EmployeeDelta> getEmployeeChanges(EmployeeWatermark since, int limit);
+
     Optional<EmployeeDTO> getEmployeeById(long id);
 
+    Optional<EmployeeSummary> getEmployeeSummary(long id);
+
+    Optional<Long> getEmployeeVersion(long id);
+
     EmployeeDTO updateEmployee(EmployeeDTO updateEmployees);
 
+    //replace of the stored names and email, empty when there is no such employee. a null expectedVersion replaces
+    //unconditionally, any other fails with ObjectOptimisticLockingFailureException unless it is the stored version
+    Optional<EmployeeDTO> replaceEmployee(long id, EmployeeDTO replacement, Long expectedVersion);
+
+    boolean patchEmployee(long id, EmployeeDTO patch, Long expectedVersion);
+
     void deleteEmployee(long id);
+
+    boolean deleteEmployee(long id, long expectedVersion);
 }
@@ -0,0 +1,118 @@
+package com.chuman.service.impl;
+
+import com.chuman.repository.EmployeeRepository;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.Stream;
+
+//bloom filter over employee emails, a negative answer lets saveEmployee skip the findByEmail round trip.
+//deletes leave their bits set, that only costs a db lookup. until the filter is warmed every email is a maybe.
+@Component
+public class EmailIndex {
+
+    private static final Log LOGGER = LogFactory.getLog(EmailIndex.class);
+
+    private final EmployeeRepository employeeRepository;
+
+    private final boolean enabled;
+
+    private final int numBits;
+
+    private final int numHashes;
+
+    private final AtomicLongArray bits;
+
+    private volatile boolean warmed;
+
+    public EmailIndex(EmployeeRepository employeeRepository,
+                      @Value("${employee.email-index.enabled:true}") boolean enabled,
+                      @Value("${employee.email-index.expected-emails:1000000}") int expectedEmails,
+                      @Value("${employee.email-index.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.employeeRepository = employeeRepository;
+        this.enabled = enabled;
+        long optimalBits = (long) Math.ceil(-expectedEmails * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        this.numBits = (int) Math.max(64, Math.min(optimalBits, Integer.MAX_VALUE - 63));
+        this.numHashes = Math.max(1, (int) Math.round((double) numBits / expectedEmails * Math.log(2)));
+        this.bits = new AtomicLongArray(enabled ? (numBits + 63) / 64 : 0);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void warm() {
+        if (!enabled) {
+            return;
+        }
+        long count = 0;
+        try (Stream<String> emails = employeeRepository.streamAllEmails()) {
+            for (String email : (Iterable<String>) emails::iterator) {
+                add(email);
+                count++;
+            }
+            warmed = true;
+            LOGGER.info("email index warmed with " + count + " emails");
+        } catch (RuntimeException e) {
+            //stay cold, every lookup falls back to the exact query
+            LOGGER.warn("email index warm up failed, duplicate checks will query the database", e);
+        }
+    }
+
+    public boolean mightContain(String email) {
+        if (!enabled || !warmed || email == null) {
+            return true;
+        }
+        long hash = hash(email);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= numHashes; i++) {
+            int bit = Math.floorMod(h1 + i * h2, numBits);
+            if ((bits.get(bit >>> 6) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public void add(String email) {
+        if (!enabled || email == null) {
+            return;
+        }
+        long hash = hash(email);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= numHashes; i++) {
+            int bit = Math.floorMod(h1 + i * h2, numBits);
+            long mask = 1L << bit;
+            int word = bit >>> 6;
+            long current;
+            do {
+                current = bits.get(word);
+            } while ((current & mask) == 0 && !bits.compareAndSet(word, current, current | mask));
+        }
+    }
+
+    public boolean isWarmed() {
+        return warmed;
+    }
+
+    //64 bit fnv-1a over the lower cased email, mysql compares emails case insensitively
+    private static long hash(String email) {
+        String key = email.toLowerCase(Locale.ROOT);
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            hash ^= key.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,32 @@
+package com.chuman.service.impl;
+
+import com.chuman.model.EmployeeDTO;
+import com.chuman.repository.EmployeeRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.List;
+
+@Component
+public class EmployeeBatchWriter {
+
+    private final EmployeeRepository employeeRepository;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public EmployeeBatchWriter(EmployeeRepository employeeRepository) {
+        this.employeeRepository = employeeRepository;
+    }
+
+    //one transaction per chunk, hibernate groups the inserts into jdbc batches on flush
+    @Transactional
+    public List<EmployeeDTO> insertChunk(List<EmployeeDTO> employees) {
+        List<EmployeeDTO> savedEmployees = employeeRepository.saveAll(employees);
+        entityManager.flush();
+        entityManager.clear();
+        return savedEmployees;
+    }
+}
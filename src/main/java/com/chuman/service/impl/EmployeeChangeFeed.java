@@ -0,0 +1,114 @@
+package com.chuman.service.impl;
+
+import com.chuman.model.EmployeeChange;
+import com.chuman.model.EmployeeSummary;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+//in-memory ring buffer of the last committed employee writes, the source of the /api/employees/changes stream.
+//a writer stores its change in the next slot and returns, it never waits for a reader. readers keep their own
+//cursor and learn from readAfter when the writers lapped them. sequences restart with the process, the epoch
+//tells two runs apart so a resume token from before a restart is not mistaken for a current one.
+@Component
+public class EmployeeChangeFeed {
+
+    private final int capacity;
+
+    private final AtomicReferenceArray<EmployeeChange> ring;
+
+    private final long epoch = System.currentTimeMillis();
+
+    private final List<Runnable> listeners = new CopyOnWriteArrayList<>();
+
+    //written under this, after the slot
+    private volatile long lastSequence;
+
+    public EmployeeChangeFeed(@Value("${employee.changes.buffer-size:10000}") int capacity) {
+        this.capacity = Math.max(1, capacity);
+        this.ring = new AtomicReferenceArray<>(this.capacity);
+    }
+
+    public void created(EmployeeSummary employee) {
+        publish(EmployeeChange.Type.CREATED, employee.getId(), employee);
+    }
+
+    public void updated(EmployeeSummary employee) {
+        publish(EmployeeChange.Type.UPDATED, employee.getId(), employee);
+    }
+
+    public void patched(long id) {
+        publish(EmployeeChange.Type.UPDATED, id, null);
+    }
+
+    public void deleted(long id) {
+        publish(EmployeeChange.Type.DELETED, id, null);
+    }
+
+    //called on the writing thread after every change, must not block
+    public void addListener(Runnable listener) {
+        listeners.add(listener);
+    }
+
+    public long getEpoch() {
+        return epoch;
+    }
+
+    public long getLastSequence() {
+        return lastSequence;
+    }
+
+    //oldest sequence the ring still holds
+    public long getFirstSequence() {
+        return Math.max(1, lastSequence - capacity + 1);
+    }
+
+    //up to max changes after the given sequence in order, null when the next one was already overwritten
+    public List<EmployeeChange> readAfter(long sequence, int max) {
+        long last = lastSequence;
+        List<EmployeeChange> changes = new ArrayList<>();
+        for (long next = sequence + 1; next <= last && changes.size() < max; next++) {
+            EmployeeChange change = ring.get(slot(next));
+            if (change == null || change.getSequence() != next) {
+                return null;
+            }
+            changes.add(change);
+        }
+        return changes;
+    }
+
+    //inside a transaction the change is only published once it commits, a rolled back write is never seen
+    private void publish(EmployeeChange.Type type, long id, EmployeeSummary employee) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    append(type, id, employee);
+                }
+            });
+            return;
+        }
+        append(type, id, employee);
+    }
+
+    private void append(EmployeeChange.Type type, long id, EmployeeSummary employee) {
+        synchronized (this) {
+            long sequence = lastSequence + 1;
+            ring.set(slot(sequence), new EmployeeChange(sequence, type, id, employee));
+            lastSequence = sequence;
+        }
+        for (Runnable listener : listeners) {
+            listener.run();
+        }
+    }
+
+    private int slot(long sequence) {
+        return (int) (sequence % capacity);
+    }
+}
@@ -0,0 +1,24 @@
+package com.chuman.service.impl;
+
+import com.chuman.config.CacheConfig;
+import org.hibernate.SessionFactory;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManagerFactory;
+
+//hibernate invalidates jpql query results through the table's update timestamp, but native sql results are
+//only as fresh as the query spaces hibernate guessed for them. writes evict the native region explicitly.
+@Component
+public class EmployeeQueryCache {
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    public EmployeeQueryCache(EntityManagerFactory entityManagerFactory) {
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    public void evictNativeQueries() {
+        entityManagerFactory.unwrap(SessionFactory.class).getCache()
+                .evictQueryRegion(CacheConfig.EMPLOYEE_NATIVE_QUERY_REGION);
+    }
+}
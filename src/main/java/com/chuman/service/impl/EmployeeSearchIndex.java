@@ -0,0 +1,203 @@
+package com.chuman.service.impl;
+
+import com.chuman.model.EmployeeSearchPage;
+import com.chuman.model.EmployeeSummary;
+import com.chuman.repository.EmployeeRepository;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.stream.Stream;
+
+//in-memory prefix index over first name, last name and email for typeahead search.
+//terms live in a sorted skip list so a prefix is a range scan, and writes update it in O(log n) per term.
+//writes are applied per employee under the id map's lock, stale versions never overwrite newer ones.
+@Component
+public class EmployeeSearchIndex {
+
+    private static final Log LOGGER = LogFactory.getLog(EmployeeSearchIndex.class);
+
+    private final EmployeeRepository employeeRepository;
+
+    private final boolean enabled;
+
+    private final ConcurrentSkipListSet<Term> terms = new ConcurrentSkipListSet<>();
+
+    private final ConcurrentHashMap<Long, EmployeeSummary> employees = new ConcurrentHashMap<>();
+
+    //deletes seen before the warm up stream reached the row
+    private final Set<Long> removedWhileWarming = ConcurrentHashMap.newKeySet();
+
+    private volatile boolean warmed;
+
+    public EmployeeSearchIndex(EmployeeRepository employeeRepository,
+                               @Value("${employee.search-index.enabled:true}") boolean enabled) {
+        this.employeeRepository = employeeRepository;
+        this.enabled = enabled;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void warm() {
+        if (!enabled) {
+            return;
+        }
+        try (Stream<EmployeeSummary> summaries = employeeRepository.streamAllSummaries()) {
+            summaries.filter(employee -> !removedWhileWarming.contains(employee.getId())).forEach(this::put);
+            warmed = true;
+            removedWhileWarming.clear();
+            LOGGER.info("search index warmed with " + employees.size() + " employees");
+        } catch (RuntimeException e) {
+            //stay cold, searches fall back to the database
+            LOGGER.warn("search index warm up failed, searches will query the database", e);
+        }
+    }
+
+    public boolean isWarmed() {
+        return warmed;
+    }
+
+    public int size() {
+        return employees.size();
+    }
+
+    public void put(EmployeeSummary employee) {
+        if (!enabled) {
+            return;
+        }
+        employees.compute(employee.getId(), (id, current) -> {
+            if (current != null && current.getVersion() > employee.getVersion()) {
+                return current;
+            }
+            if (current != null) {
+                removeTerms(current);
+            }
+            addTerms(employee);
+            return employee;
+        });
+    }
+
+    //applies a partial update, null fields keep their indexed value
+    public void patch(long id, String firstName, String lastName, String email) {
+        employees.computeIfPresent(id, (key, current) -> {
+            EmployeeSummary patched = new EmployeeSummary(id,
+                    firstName != null ? firstName : current.getFirstName(),
+                    lastName != null ? lastName : current.getLastName(),
+                    email != null ? email : current.getEmail(),
+                    current.getVersion() + 1);
+            removeTerms(current);
+            addTerms(patched);
+            return patched;
+        });
+    }
+
+    public void remove(long id) {
+        if (!enabled) {
+            return;
+        }
+        if (!warmed) {
+            removedWhileWarming.add(id);
+        }
+        employees.computeIfPresent(id, (key, current) -> {
+            removeTerms(current);
+            return null;
+        });
+    }
+
+    //matches in term order, an employee matching on several fields is returned once.
+    //a query with a space matches "first last" so full names can be typed.
+    public EmployeeSearchPage search(String query, int offset, int limit) {
+        String prefix = query.trim().toLowerCase(Locale.ROOT);
+        int space = prefix.indexOf(' ');
+        String scanPrefix = space < 0 ? prefix : prefix.substring(0, space);
+        Set<Long> seen = new HashSet<>();
+        List<EmployeeSummary> content = new ArrayList<>(limit);
+        int skipped = 0;
+        for (Term term : terms.tailSet(new Term(scanPrefix, Long.MIN_VALUE))) {
+            if (!term.text.startsWith(scanPrefix)) {
+                break;
+            }
+            EmployeeSummary employee = employees.get(term.id);
+            //a term can outlive its employee for the duration of a concurrent write
+            if (employee == null || !matches(employee, scanPrefix) || !seen.add(term.id)) {
+                continue;
+            }
+            if (space >= 0 && !(lower(employee.getFirstName()) + " " + lower(employee.getLastName())).startsWith(prefix)) {
+                continue;
+            }
+            if (skipped < offset) {
+                skipped++;
+                continue;
+            }
+            if (content.size() == limit) {
+                return new EmployeeSearchPage(content, offset + limit);
+            }
+            content.add(employee);
+        }
+        return new EmployeeSearchPage(content, null);
+    }
+
+    private void addTerms(EmployeeSummary employee) {
+        for (String text : texts(employee)) {
+            terms.add(new Term(text, employee.getId()));
+        }
+    }
+
+    private void removeTerms(EmployeeSummary employee) {
+        for (String text : texts(employee)) {
+            terms.remove(new Term(text, employee.getId()));
+        }
+    }
+
+    private static boolean matches(EmployeeSummary employee, String prefix) {
+        for (String text : texts(employee)) {
+            if (text.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static List<String> texts(EmployeeSummary employee) {
+        List<String> texts = new ArrayList<>(3);
+        for (String field : new String[]{employee.getFirstName(), employee.getLastName(), employee.getEmail()}) {
+            if (field != null) {
+                texts.add(lower(field));
+            }
+        }
+        return texts;
+    }
+
+    private static String lower(String value) {
+        return value == null ? "" : value.toLowerCase(Locale.ROOT);
+    }
+
+    private static final class Term implements Comparable<Term> {
+
+        private final String text;
+
+        private final long id;
+
+        private Term(String text, long id) {
+            this.text = text;
+            this.id = id;
+        }
+
+        @Override
+        public int compareTo(Term other) {
+            int byText = text.compareTo(other.text);
+            return byText != 0 ? byText : Long.compare(id, other.id);
+        }
+    }
+}
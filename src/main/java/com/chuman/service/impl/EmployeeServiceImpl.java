@@ -1,52 +1,396 @@
 package com.chuman.service.impl;
 
+import com.chuman.config.CacheConfig;
+import com.chuman.config.ReadWriteRoutingDataSource;
 import com.chuman.exception.ResourceNotFoundException;
+import com.chuman.model.BulkEmployeeResult;
+import com.chuman.model.EmployeeCollectionVersion;
 import com.chuman.model.EmployeeDTO;
+import com.chuman.model.EmployeeDelta;
+import com.chuman.model.EmployeePage;
+import com.chuman.model.EmployeeRevision;
+import com.chuman.model.EmployeeSearchPage;
+import com.chuman.model.EmployeeSummary;
+import com.chuman.model.EmployeeWatermark;
 import com.chuman.repository.EmployeeRepository;
 import com.chuman.service.EmployeeService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 public class EmployeeServiceImpl implements EmployeeService {
 
+    //rows per transaction for bulk creates, each chunk is flushed as jdbc batches
+    static final int BULK_CHUNK_SIZE = 500;
+
+    //delta sync order, unique across rows and tombstones since a deleted id has no row left
+    private static final Comparator<EmployeeRevision> REVISION_ORDER =
+            Comparator.comparing(EmployeeRevision::getUpdatedAt).thenComparingLong(EmployeeRevision::getId);
+
     private EmployeeRepository employeeRepository;
 
-    public EmployeeServiceImpl(EmployeeRepository employeeRepository) {
+    private EmployeeBatchWriter employeeBatchWriter;
+
+    private EmailIndex emailIndex;
+
+    private EmployeeSearchIndex searchIndex;
+
+    private EmployeeQueryCache queryCache;
+
+    private EmployeeChangeFeed changeFeed;
+
+    private EmployeeTombstones tombstones;
+
+    public EmployeeServiceImpl(EmployeeRepository employeeRepository, EmployeeBatchWriter employeeBatchWriter,
+                               EmailIndex emailIndex, EmployeeSearchIndex searchIndex, EmployeeQueryCache queryCache,
+                               EmployeeChangeFeed changeFeed, EmployeeTombstones tombstones) {
         this.employeeRepository = employeeRepository;
+        this.employeeBatchWriter = employeeBatchWriter;
+        this.emailIndex = emailIndex;
+        this.searchIndex = searchIndex;
+        this.queryCache = queryCache;
+        this.changeFeed = changeFeed;
+        this.tombstones = tombstones;
     }
 
     @Override
     public EmployeeDTO saveEmployee(EmployeeDTO employees) {
-        Optional<EmployeeDTO> savedEmployee = employeeRepository.findByEmail(employees.getEmail());
-        if(savedEmployee.isPresent()){
-            throw new ResourceNotFoundException("Employee already exit with given email "+employees.getEmail());
+        //the exact query only runs when the index says the email may already exist
+        if (emailIndex.mightContain(employees.getEmail())) {
+            Optional<EmployeeDTO> savedEmployee = employeeRepository.findByEmail(employees.getEmail());
+            if(savedEmployee.isPresent()){
+                throw new ResourceNotFoundException("Employee already exit with given email "+employees.getEmail());
+            }
+        }
+        EmployeeDTO savedEmployee;
+        try {
+            savedEmployee = employeeRepository.save(employees);
+        } catch (DataIntegrityViolationException e) {
+            //created elsewhere since the index was warmed, the unique constraint caught it.
+            //asks the primary, a lagging replica may not have the conflicting row yet
+            if (ReadWriteRoutingDataSource.onPrimary(() -> employeeRepository.findByEmail(employees.getEmail())).isPresent()) {
+                throw new ResourceNotFoundException("Employee already exit with given email "+employees.getEmail(), e);
+            }
+            throw e;
+        }
+        EmployeeSummary summary = EmployeeSummary.of(savedEmployee);
+        emailIndex.add(savedEmployee.getEmail());
+        searchIndex.put(summary);
+        queryCache.evictNativeQueries();
+        changeFeed.created(summary);
+        return savedEmployee;
+    }
+
+    @Override
+    public List<BulkEmployeeResult> saveEmployees(List<EmployeeDTO> employees) {
+        BulkEmployeeResult[] results = new BulkEmployeeResult[employees.size()];
+        Map<String, Integer> indexByEmail = new HashMap<>();
+        for (int i = 0; i < employees.size(); i++) {
+            String email = employees.get(i).getEmail();
+            String missing = missingField(employees.get(i));
+            if (missing != null) {
+                results[i] = new BulkEmployeeResult(i, email, BulkEmployeeResult.Status.INVALID, null, missing + " is required");
+            } else if (indexByEmail.putIfAbsent(email.toLowerCase(Locale.ROOT), i) != null) {
+                results[i] = new BulkEmployeeResult(i, email, BulkEmployeeResult.Status.DUPLICATE, null, "email repeated in request");
+            }
+        }
+
+        Set<String> candidateEmails = new HashSet<>();
+        indexByEmail.keySet().stream().filter(emailIndex::mightContain).forEach(candidateEmails::add);
+        Set<String> existingEmails = new HashSet<>();
+        if (!candidateEmails.isEmpty()) {
+            employeeRepository.findExistingEmails(candidateEmails)
+                    .forEach(email -> existingEmails.add(email.toLowerCase(Locale.ROOT)));
+        }
+
+        List<Integer> pending = new ArrayList<>();
+        for (Map.Entry<String, Integer> entry : indexByEmail.entrySet()) {
+            int index = entry.getValue();
+            if (existingEmails.contains(entry.getKey())) {
+                results[index] = new BulkEmployeeResult(index, employees.get(index).getEmail(),
+                        BulkEmployeeResult.Status.DUPLICATE, null, "Employee already exit with given email");
+            } else {
+                pending.add(index);
+            }
         }
-        return employeeRepository.save(employees);
+        pending.sort(null);
+
+        for (int from = 0; from < pending.size(); from += BULK_CHUNK_SIZE) {
+            List<Integer> chunkIndexes = pending.subList(from, Math.min(from + BULK_CHUNK_SIZE, pending.size()));
+            List<EmployeeDTO> chunk = new ArrayList<>(chunkIndexes.size());
+            chunkIndexes.forEach(index -> chunk.add(employees.get(index)));
+            try {
+                created(employeeBatchWriter.insertChunk(chunk), chunkIndexes, results);
+            } catch (DataAccessException e) {
+                if (chunkIndexes.size() == 1) {
+                    results[chunkIndexes.get(0)] = failed(chunkIndexes.get(0), chunk.get(0), e);
+                    continue;
+                }
+                //the whole chunk rolled back, earlier chunks stay committed. retry its rows alone so one bad row
+                //cannot fail its neighbours
+                for (Integer index : chunkIndexes) {
+                    EmployeeDTO employee = employees.get(index);
+                    //the rolled back persist already handed out an id
+                    employee.setId(0L);
+                    employee.setVersion(0L);
+                    try {
+                        created(employeeBatchWriter.insertChunk(List.of(employee)), List.of(index), results);
+                    } catch (DataAccessException rowError) {
+                        results[index] = failed(index, employee, rowError);
+                    }
+                }
+            }
+        }
+        return Arrays.asList(results);
+    }
+
+    //the not null columns, checked up front so they are reported per item instead of failing a whole chunk
+    private static String missingField(EmployeeDTO employee) {
+        if (employee.getEmail() == null || employee.getEmail().isBlank()) {
+            return "email";
+        }
+        if (employee.getFirstName() == null) {
+            return "firstName";
+        }
+        if (employee.getLastName() == null) {
+            return "lastName";
+        }
+        return null;
+    }
+
+    private void created(List<EmployeeDTO> savedEmployees, List<Integer> indexes, BulkEmployeeResult[] results) {
+        for (int i = 0; i < indexes.size(); i++) {
+            EmployeeDTO saved = savedEmployees.get(i);
+            EmployeeSummary summary = EmployeeSummary.of(saved);
+            emailIndex.add(saved.getEmail());
+            searchIndex.put(summary);
+            changeFeed.created(summary);
+            results[indexes.get(i)] = new BulkEmployeeResult(indexes.get(i), saved.getEmail(),
+                    BulkEmployeeResult.Status.CREATED, saved.getId(), null);
+        }
+        queryCache.evictNativeQueries();
+    }
+
+    private static BulkEmployeeResult failed(int index, EmployeeDTO employee, DataAccessException e) {
+        return new BulkEmployeeResult(index, employee.getEmail(), BulkEmployeeResult.Status.FAILED, null,
+                e.getMostSpecificCause().getMessage());
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<EmployeeDTO> getAllEmployee() {
         return employeeRepository.findAll();
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public EmployeePage getEmployeePage(long afterId, int limit) {
+        //fetch one extra row to know whether another page exists
+        List<EmployeeSummary> employees = employeeRepository.findSummariesAfter(afterId, PageRequest.of(0, limit + 1));
+        if (employees.size() > limit) {
+            List<EmployeeSummary> content = employees.subList(0, limit);
+            return new EmployeePage(content, content.get(limit - 1).getId());
+        }
+        return new EmployeePage(employees, null);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public EmployeeCollectionVersion getEmployeePageVersion(long afterId, int limit) {
+        List<Long> ids = employeeRepository.findIdsAfter(afterId, PageRequest.of(0, limit + 1));
+        boolean hasNext = ids.size() > limit;
+        long upTo = hasNext ? ids.get(limit - 1) : Long.MAX_VALUE;
+        return employeeRepository.findCollectionVersion(afterId, upTo).withHasNext(hasNext);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportEmployees(Consumer<EmployeeSummary> consumer) {
+        //projections are never managed, the heap stays flat without detaching
+        try (Stream<EmployeeSummary> employees = employeeRepository.streamAllSummaries()) {
+            employees.forEach(consumer);
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public EmployeeSearchPage searchEmployees(String query, int offset, int limit) {
+        if (searchIndex.isWarmed()) {
+            return searchIndex.search(query, offset, limit);
+        }
+        //index disabled or still warming up
+        String prefix = query.trim().toLowerCase(Locale.ROOT)
+                .replace("!", "!!").replace("%", "!%").replace("_", "!_") + "%";
+        List<EmployeeSummary> employees = employeeRepository.searchByPrefix(prefix, PageRequest.of(0, offset + limit + 1));
+        List<EmployeeSummary> content = employees.subList(Math.min(offset, employees.size()), Math.min(offset + limit, employees.size()));
+        return new EmployeeSearchPage(content, employees.size() > offset + limit ? offset + limit : null);
+    }
+
+    //rows and tombstones after the watermark merged in write order, both read up to the same horizon
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<EmployeeDelta> getEmployeeChanges(EmployeeWatermark since, int limit) {
+        if (tombstones.isExpired(since)) {
+            return Optional.empty();
+        }
+        Instant issuedAt = Instant.now();
+        //never behind the watermark, a clock step back would otherwise move it backwards
+        Instant horizon = tombstones.horizon();
+        Instant until = horizon.isBefore(since.getTime()) ? since.getTime() : horizon;
+        //a lagging replica would let the watermark move past rows it has not applied yet
+        List<EmployeeRevision> changes = ReadWriteRoutingDataSource.onPrimary(() -> {
+            List<EmployeeRevision> revisions = new ArrayList<>(
+                    employeeRepository.findChangedSince(since.getTime(), since.getId(), until, PageRequest.of(0, limit + 1)));
+            //a full sync starts from nothing, there is nothing to delete yet
+            if (!since.isInitial()) {
+                revisions.addAll(tombstones.deletedSince(since, until, limit + 1));
+            }
+            return revisions;
+        });
+        changes.sort(REVISION_ORDER);
+        if (changes.size() > limit) {
+            List<EmployeeRevision> content = new ArrayList<>(changes.subList(0, limit));
+            EmployeeRevision last = content.get(limit - 1);
+            return Optional.of(new EmployeeDelta(content,
+                    new EmployeeWatermark(last.getUpdatedAt(), last.getId(), issuedAt).toToken(), true));
+        }
+        //caught up, the next call starts after everything up to the horizon
+        return Optional.of(new EmployeeDelta(changes, new EmployeeWatermark(until, Long.MAX_VALUE, issuedAt).toToken(), false));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public Optional<EmployeeDTO> getEmployeeById(long id) {
         return employeeRepository.findById(id);
     }
 
+    //immutable projection, safe to share through the cache. a miss loads from the primary, a replica copy read right
+    //after the eviction of a write would be cached for the whole ttl
+    @Override
+    @Cacheable(cacheNames = CacheConfig.EMPLOYEE_CACHE, key = "#id", unless = "#result == null")
+    @Transactional(readOnly = true)
+    public Optional<EmployeeSummary> getEmployeeSummary(long id) {
+        return ReadWriteRoutingDataSource.onPrimary(() -> employeeRepository.findSummaryById(id));
+    }
+
     @Override
+    @Transactional(readOnly = true)
+    public Optional<Long> getEmployeeVersion(long id) {
+        return employeeRepository.findVersionById(id);
+    }
+
+    @Override
+    @CacheEvict(cacheNames = CacheConfig.EMPLOYEE_CACHE, key = "#updateEmployees.id")
+    @Transactional
     public EmployeeDTO updateEmployee(EmployeeDTO updateEmployees) {
-        return employeeRepository.save(updateEmployees);
+        //the merge copies every field, a detached copy without createdAt would null it in the entity and the second-level cache
+        if (updateEmployees.getCreatedAt() == null) {
+            employeeRepository.findById(updateEmployees.getId())
+                    .ifPresent(current -> updateEmployees.setCreatedAt(current.getCreatedAt()));
+        }
+        EmployeeDTO updatedEmployee = employeeRepository.save(updateEmployees);
+        EmployeeSummary summary = EmployeeSummary.of(updatedEmployee);
+        emailIndex.add(updatedEmployee.getEmail());
+        searchIndex.put(summary);
+        queryCache.evictNativeQueries();
+        changeFeed.updated(summary);
+        return updatedEmployee;
     }
 
+    //the row is locked and rewritten in one transaction on the primary. the version comes from the row itself and not
+    //from the cache or the replica, so a stale copy cannot turn the write into a conflict. the managed entity keeps the
+    //columns the request does not carry, createdAt among them
     @Override
+    @CacheEvict(cacheNames = CacheConfig.EMPLOYEE_CACHE, key = "#id")
+    @Transactional
+    public Optional<EmployeeDTO> replaceEmployee(long id, EmployeeDTO replacement, Long expectedVersion) {
+        Optional<EmployeeDTO> current = employeeRepository.findForUpdateById(id);
+        current.ifPresent(employee -> {
+            if (expectedVersion != null && employee.getVersion() != expectedVersion) {
+                throw new ObjectOptimisticLockingFailureException(EmployeeDTO.class, id);
+            }
+            employee.setFirstName(replacement.getFirstName());
+            employee.setLastName(replacement.getLastName());
+            employee.setEmail(replacement.getEmail());
+            //flushed so the returned version is the one the response etag carries
+            EmployeeDTO updatedEmployee = employeeRepository.saveAndFlush(employee);
+            EmployeeSummary summary = EmployeeSummary.of(updatedEmployee);
+            emailIndex.add(updatedEmployee.getEmail());
+            searchIndex.put(summary);
+            queryCache.evictNativeQueries();
+            changeFeed.updated(summary);
+        });
+        return current;
+    }
+
+    @Override
+    @CacheEvict(cacheNames = CacheConfig.EMPLOYEE_CACHE, key = "#id")
+    public boolean patchEmployee(long id, EmployeeDTO patch, Long expectedVersion) {
+        int updated;
+        try {
+            updated = employeeRepository.patchEmployee(id, patch.getFirstName(), patch.getLastName(), patch.getEmail(),
+                    expectedVersion);
+        } catch (DataIntegrityViolationException e) {
+            if (patch.getEmail() != null) {
+                throw new ResourceNotFoundException("Employee already exit with given email "+patch.getEmail(), e);
+            }
+            throw e;
+        }
+        if (updated > 0) {
+            emailIndex.add(patch.getEmail());
+            searchIndex.patch(id, patch.getFirstName(), patch.getLastName(), patch.getEmail());
+            queryCache.evictNativeQueries();
+            changeFeed.patched(id);
+        }
+        return updated > 0;
+    }
+
+    //the tombstone commits with the delete
+    @Override
+    @CacheEvict(cacheNames = CacheConfig.EMPLOYEE_CACHE, key = "#id")
+    @Transactional
     public void deleteEmployee(long id) {
         employeeRepository.deleteById(id);
+        tombstones.record(id);
+        searchIndex.remove(id);
+        queryCache.evictNativeQueries();
+        changeFeed.deleted(id);
+    }
+
+    @Override
+    @CacheEvict(cacheNames = CacheConfig.EMPLOYEE_CACHE, key = "#id")
+    @Transactional
+    public boolean deleteEmployee(long id, long expectedVersion) {
+        if (employeeRepository.deleteByIdAndVersion(id, expectedVersion) == 0) {
+            return false;
+        }
+        tombstones.record(id);
+        searchIndex.remove(id);
+        queryCache.evictNativeQueries();
+        changeFeed.deleted(id);
+        return true;
     }
 }
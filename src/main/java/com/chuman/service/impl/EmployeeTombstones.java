@@ -0,0 +1,96 @@
+package com.chuman.service.impl;
+
+import com.chuman.model.EmployeeRevision;
+import com.chuman.model.EmployeeTombstone;
+import com.chuman.model.EmployeeWatermark;
+import com.chuman.repository.EmployeeTombstoneRepository;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+//delete records and time bounds for delta sync. tombstones are kept for the retention, a watermark issued before
+//that may have missed purged deletes. the horizon trails the clock by the commit lag, a row stamped before its
+//transaction commits stays invisible until then, and a sync must not move past it in the meantime.
+@Component
+public class EmployeeTombstones {
+
+    private static final Log LOGGER = LogFactory.getLog(EmployeeTombstones.class);
+
+    private final EmployeeTombstoneRepository tombstoneRepository;
+
+    private final Duration retention;
+
+    private final Duration commitLag;
+
+    private final Duration purgeInterval;
+
+    private ScheduledExecutorService executor;
+
+    public EmployeeTombstones(EmployeeTombstoneRepository tombstoneRepository,
+                              @Value("${employee.sync.tombstone-retention:30d}") Duration retention,
+                              @Value("${employee.sync.commit-lag:5s}") Duration commitLag,
+                              @Value("${employee.sync.purge-interval:1h}") Duration purgeInterval) {
+        this.tombstoneRepository = tombstoneRepository;
+        this.retention = retention;
+        this.commitLag = commitLag;
+        this.purgeInterval = purgeInterval;
+    }
+
+    @PostConstruct
+    public void start() {
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "employee-tombstone-purge");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::purge, purgeInterval.toMillis(), purgeInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    //joins the caller's transaction, the tombstone commits with the delete
+    public void record(long employeeId) {
+        tombstoneRepository.save(new EmployeeTombstone(employeeId, Instant.now().truncatedTo(ChronoUnit.MICROS)));
+    }
+
+    public List<EmployeeRevision> deletedSince(EmployeeWatermark since, Instant until, int limit) {
+        return tombstoneRepository.findDeletedSince(since.getTime(), since.getId(), until, PageRequest.of(0, limit));
+    }
+
+    //a delete still in flight at issuedAt is stamped up to the commit lag earlier and has to be retained as well
+    public boolean isExpired(EmployeeWatermark watermark) {
+        return !watermark.isInitial() && watermark.getIssuedAt().minus(commitLag).isBefore(Instant.now().minus(retention));
+    }
+
+    public Instant horizon() {
+        return Instant.now().minus(commitLag).truncatedTo(ChronoUnit.MICROS);
+    }
+
+    public void purge() {
+        try {
+            int purged = tombstoneRepository.deleteDeletedBefore(Instant.now().minus(retention));
+            if (purged > 0) {
+                LOGGER.info("purged " + purged + " employee tombstones older than " + retention);
+            }
+        } catch (RuntimeException e) {
+            LOGGER.warn("employee tombstone purge failed, retrying in " + purgeInterval, e);
+        }
+    }
+}
@@ -0,0 +1,283 @@
+package com.chuman.service.impl;
+
+import com.chuman.exception.ResourceNotFoundException;
+import com.chuman.model.BulkEmployeeResult;
+import com.chuman.model.EmployeeCollectionVersion;
+import com.chuman.model.EmployeeDTO;
+import com.chuman.model.EmployeeDelta;
+import com.chuman.model.EmployeePage;
+import com.chuman.model.EmployeeSearchPage;
+import com.chuman.model.EmployeeSummary;
+import com.chuman.model.EmployeeWatermark;
+import com.chuman.service.EmployeeService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+
+//group commit for single creates: concurrent saveEmployee calls are collected for lingerMs or up to maxBatchSize,
+//inserted through the bulk path in one transaction, and each caller gets its own result or exception back.
+//every other call goes straight to EmployeeServiceImpl.
+@Service
+@Primary
+@ConditionalOnProperty(prefix = "employee.group-commit", name = "enabled", havingValue = "true")
+public class GroupCommitEmployeeService implements EmployeeService {
+
+    private static final Log LOGGER = LogFactory.getLog(GroupCommitEmployeeService.class);
+
+    private final EmployeeServiceImpl delegate;
+
+    private final int maxBatchSize;
+
+    private final long lingerNanos;
+
+    private final long timeoutMs;
+
+    private final BlockingQueue<PendingCreate> queue;
+
+    private final Counter commits;
+
+    private final DistributionSummary batchSizes;
+
+    private final Timer waitTimer;
+
+    private volatile boolean running;
+
+    private Thread worker;
+
+    public GroupCommitEmployeeService(EmployeeServiceImpl delegate, MeterRegistry meterRegistry,
+                                      @Value("${employee.group-commit.max-batch-size:100}") int maxBatchSize,
+                                      @Value("${employee.group-commit.linger-ms:5}") long lingerMs,
+                                      @Value("${employee.group-commit.queue-size:10000}") int queueSize,
+                                      @Value("${employee.group-commit.timeout-ms:5000}") long timeoutMs) {
+        this.delegate = delegate;
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.lingerNanos = TimeUnit.MILLISECONDS.toNanos(lingerMs);
+        this.timeoutMs = timeoutMs;
+        this.queue = new LinkedBlockingQueue<>(queueSize);
+        this.commits = Counter.builder("employee.group-commit.commits").register(meterRegistry);
+        this.batchSizes = DistributionSummary.builder("employee.group-commit.batch.size").register(meterRegistry);
+        this.waitTimer = Timer.builder("employee.group-commit.wait")
+                .description("time a create waits for its group to commit")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        worker = new Thread(this::drain, "employee-group-commit");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        worker.interrupt();
+        worker.join(timeoutMs);
+    }
+
+    @Override
+    public EmployeeDTO saveEmployee(EmployeeDTO employee) {
+        PendingCreate pending = new PendingCreate(employee);
+        //a full queue or a stopped worker degrades to one transaction per create
+        if (!running || !queue.offer(pending)) {
+            return delegate.saveEmployee(employee);
+        }
+        try {
+            return pending.result.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            //the insert may still commit, same outcome as a client timeout on the direct path
+            throw new IllegalStateException("group commit did not finish within " + timeoutMs + "ms", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted waiting for group commit", e);
+        } finally {
+            waitTimer.record(System.nanoTime() - pending.enqueuedAt, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void drain() {
+        List<PendingCreate> batch = new ArrayList<>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingCreate first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = first.enqueuedAt + lingerNanos;
+                while (batch.size() < maxBatchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    PendingCreate next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                //stop() interrupts, the loop keeps going until the queue is flushed
+            }
+            if (!batch.isEmpty()) {
+                commit(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private void commit(List<PendingCreate> batch) {
+        List<EmployeeDTO> employees = new ArrayList<>(batch.size());
+        batch.forEach(pending -> employees.add(pending.employee));
+        List<BulkEmployeeResult> results;
+        try {
+            results = delegate.saveEmployees(employees);
+        } catch (RuntimeException e) {
+            batch.forEach(pending -> pending.result.completeExceptionally(e));
+            return;
+        }
+        commits.increment();
+        batchSizes.record(batch.size());
+        for (BulkEmployeeResult result : results) {
+            PendingCreate pending = batch.get(result.getIndex());
+            switch (result.getStatus()) {
+                case CREATED:
+                    pending.employee.setId(result.getId());
+                    pending.result.complete(pending.employee);
+                    break;
+                case DUPLICATE:
+                    pending.result.completeExceptionally(
+                            new ResourceNotFoundException("Employee already exit with given email " + result.getEmail()));
+                    break;
+                case INVALID:
+                    pending.result.completeExceptionally(new DataIntegrityViolationException(result.getMessage()));
+                    break;
+                default:
+                    //the group rolled back, retry alone so one bad row cannot fail its neighbours
+                    retryAlone(pending);
+            }
+        }
+    }
+
+    private void retryAlone(PendingCreate pending) {
+        try {
+            pending.result.complete(delegate.saveEmployee(pending.employee));
+        } catch (RuntimeException e) {
+            LOGGER.debug("create failed after its group rolled back", e);
+            pending.result.completeExceptionally(e);
+        }
+    }
+
+    @Override
+    public List<BulkEmployeeResult> saveEmployees(List<EmployeeDTO> employees) {
+        return delegate.saveEmployees(employees);
+    }
+
+    @Override
+    public List<EmployeeDTO> getAllEmployee() {
+        return delegate.getAllEmployee();
+    }
+
+    @Override
+    public EmployeePage getEmployeePage(long afterId, int limit) {
+        return delegate.getEmployeePage(afterId, limit);
+    }
+
+    @Override
+    public EmployeeCollectionVersion getEmployeePageVersion(long afterId, int limit) {
+        return delegate.getEmployeePageVersion(afterId, limit);
+    }
+
+    @Override
+    public void exportEmployees(Consumer<EmployeeSummary> consumer) {
+        delegate.exportEmployees(consumer);
+    }
+
+    @Override
+    public EmployeeSearchPage searchEmployees(String query, int offset, int limit) {
+        return delegate.searchEmployees(query, offset, limit);
+    }
+
+    @Override
+    public Optional<EmployeeDelta> getEmployeeChanges(EmployeeWatermark since, int limit) {
+        return delegate.getEmployeeChanges(since, limit);
+    }
+
+    @Override
+    public Optional<EmployeeDTO> getEmployeeById(long id) {
+        return delegate.getEmployeeById(id);
+    }
+
+    @Override
+    public Optional<EmployeeSummary> getEmployeeSummary(long id) {
+        return delegate.getEmployeeSummary(id);
+    }
+
+    @Override
+    public Optional<Long> getEmployeeVersion(long id) {
+        return delegate.getEmployeeVersion(id);
+    }
+
+    @Override
+    public EmployeeDTO updateEmployee(EmployeeDTO updateEmployees) {
+        return delegate.updateEmployee(updateEmployees);
+    }
+
+    @Override
+    public Optional<EmployeeDTO> replaceEmployee(long id, EmployeeDTO replacement, Long expectedVersion) {
+        return delegate.replaceEmployee(id, replacement, expectedVersion);
+    }
+
+    @Override
+    public boolean patchEmployee(long id, EmployeeDTO patch, Long expectedVersion) {
+        return delegate.patchEmployee(id, patch, expectedVersion);
+    }
+
+    @Override
+    public void deleteEmployee(long id) {
+        delegate.deleteEmployee(id);
+    }
+
+    @Override
+    public boolean deleteEmployee(long id, long expectedVersion) {
+        return delegate.deleteEmployee(id, expectedVersion);
+    }
+
+    private static final class PendingCreate {
+
+        private final EmployeeDTO employee;
+
+        private final CompletableFuture<EmployeeDTO> result = new CompletableFuture<>();
+
+        private final long enqueuedAt = System.nanoTime();
+
+        PendingCreate(EmployeeDTO employee) {
+            this.employee = employee;
+        }
+    }
+}
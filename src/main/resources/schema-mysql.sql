@@ -0,0 +1,28 @@
+create table if not exists employees (
+    id bigint not null,
+    first_name varchar(255) not null,
+    last_name varchar(255) not null,
+    email varchar(255) not null,
+    version bigint not null,
+    -- the api sets both, the defaults cover writers that do not know the columns
+    created_at datetime(6) not null default current_timestamp(6),
+    updated_at datetime(6) not null default current_timestamp(6) on update current_timestamp(6),
+    primary key (id),
+    constraint uk_employees_email unique (email),
+    index idx_employees_updated_at (updated_at, id)
+) engine = InnoDB;
+
+-- deletes for delta sync, purged after employee.sync.tombstone-retention
+create table if not exists employee_tombstones (
+    employee_id bigint not null,
+    deleted_at datetime(6) not null,
+    primary key (employee_id),
+    index idx_employee_tombstones_deleted_at (deleted_at, employee_id)
+) engine = InnoDB;
+
+-- backs the pooled employees_seq generator, the dialect has no native sequences
+create table if not exists employees_seq (
+    next_val bigint
+) engine = InnoDB;
+
+insert into employees_seq (next_val) select 1 from dual where not exists (select * from employees_seq);
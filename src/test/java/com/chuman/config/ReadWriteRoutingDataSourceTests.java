@@ -0,0 +1,131 @@
+package com.chuman.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+//two embedded h2 databases stand in for the primary and the replica
+class ReadWriteRoutingDataSourceTests {
+
+    private HikariDataSource primary;
+
+    private HikariDataSource replica;
+
+    private ReplicaLagMonitor lagMonitor;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private TransactionTemplate readOnly;
+
+    private TransactionTemplate readWrite;
+
+    @BeforeEach
+    public void setup(){
+        primary = h2("primary");
+        replica = h2("replica");
+        new JdbcTemplate(replica).execute("create table replica_lag(seconds int)");
+        new JdbcTemplate(replica).update("insert into replica_lag values (0)");
+        lagMonitor = new ReplicaLagMonitor(replica, "select seconds from replica_lag", "seconds", 5, 1000);
+        lagMonitor.check();
+        meterRegistry = new SimpleMeterRegistry();
+        ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(primary, replica, lagMonitor, meterRegistry);
+        routing.afterPropertiesSet();
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(routing);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        readWrite = new TransactionTemplate(transactionManager);
+    }
+
+    @AfterEach
+    public void tearDown(){
+        primary.close();
+        replica.close();
+    }
+
+    @Test
+    void givenReadOnlyTransaction_whenQuery_thenReplicaAnswers(){
+        //when action
+        String database = readOnly.execute(status -> currentDatabase());
+        //then
+        assertThat(database).isEqualTo("replica");
+        assertThat(meterRegistry.counter("employee.datasource.routes", "pool", "replica").count()).isEqualTo(1);
+    }
+
+    @Test
+    void givenReadWriteTransaction_whenQuery_thenPrimaryAnswers(){
+        //when action
+        String database = readWrite.execute(status -> currentDatabase());
+        //then
+        assertThat(database).isEqualTo("primary");
+    }
+
+    @Test
+    void givenNoTransaction_whenQuery_thenPrimaryAnswers(){
+        //when action
+        String database = currentDatabase();
+        //then
+        assertThat(database).isEqualTo("primary");
+    }
+
+    @Test
+    void givenLaggingReplica_whenReadOnlyQuery_thenFallBackToPrimary(){
+        //given or setup
+        new JdbcTemplate(replica).update("update replica_lag set seconds = 30");
+        lagMonitor.check();
+        //when action
+        String database = readOnly.execute(status -> currentDatabase());
+        //then
+        assertThat(database).isEqualTo("primary");
+        assertThat(meterRegistry.counter("employee.datasource.replica.fallbacks").count()).isEqualTo(1);
+    }
+
+    @Test
+    void givenUnreadableLag_whenReadOnlyQuery_thenFallBackToPrimary(){
+        //given or setup
+        new JdbcTemplate(replica).update("delete from replica_lag");
+        lagMonitor.check();
+        //when action
+        String database = readOnly.execute(status -> currentDatabase());
+        //then
+        assertThat(lagMonitor.getLagSeconds()).isNaN();
+        assertThat(database).isEqualTo("primary");
+    }
+
+    @Test
+    void givenOnPrimary_whenReadOnlyQuery_thenPrimaryAnswers(){
+        //when action
+        String database = ReadWriteRoutingDataSource.onPrimary(() -> readOnly.execute(status -> currentDatabase()));
+        String afterwards = readOnly.execute(status -> currentDatabase());
+        //then
+        assertThat(database).isEqualTo("primary");
+        assertThat(afterwards).isEqualTo("replica");
+    }
+
+    private String currentDatabase(){
+        return jdbcTemplate.queryForObject("select name from node", String.class);
+    }
+
+    private static HikariDataSource h2(String name){
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1");
+        dataSource.setPoolName(name);
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("drop table if exists node");
+        jdbcTemplate.execute("drop table if exists replica_lag");
+        jdbcTemplate.execute("create table node(name varchar(16))");
+        jdbcTemplate.update("insert into node values (?)", name);
+        return dataSource;
+    }
+}
@@ -0,0 +1,51 @@
+package com.chuman.config;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SqlStatementCounterTests {
+
+    private final SqlStatementCounter counter = new SqlStatementCounter();
+
+    @Test
+    void givenNestedScopes_whenInspect_thenOuterScopeCountsInnerStatements(){
+        //given or setup
+        try (SqlStatementCounter.Scope outer = SqlStatementCounter.begin()) {
+            counter.inspect("select 1");
+            //when action
+            try (SqlStatementCounter.Scope inner = SqlStatementCounter.begin()) {
+                counter.inspect("select 2");
+                //then
+                assertThat(inner.getCount()).isEqualTo(1);
+            }
+            assertThat(outer.getCount()).isEqualTo(2);
+            assertThat(SqlStatementCounter.currentCount()).isEqualTo(2);
+        }
+        assertThat(SqlStatementCounter.currentCount()).isEqualTo(-1);
+    }
+
+    @Test
+    void givenSameStatementRunPerRow_whenRepeated_thenReportedAsNPlusOne(){
+        //given or setup
+        try (SqlStatementCounter.Scope scope = SqlStatementCounter.begin()) {
+            counter.inspect("select e from employees e");
+            for (int i = 0; i < 5; i++) {
+                counter.inspect("select d from departments d where d.id=?");
+            }
+            //when action
+            //then
+            assertThat(scope.repeated(5)).containsOnlyKeys("select d from departments d where d.id=?");
+            assertThat(scope.repeated(6)).isEmpty();
+        }
+    }
+
+    @Test
+    void givenNoScope_whenInspect_thenSqlPassesThrough(){
+        //when action
+        String sql = counter.inspect("select 1");
+        //then
+        assertThat(sql).isEqualTo("select 1");
+        assertThat(SqlStatementCounter.currentCount()).isEqualTo(-1);
+    }
+}
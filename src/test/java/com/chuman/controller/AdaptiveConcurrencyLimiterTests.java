@@ -0,0 +1,71 @@
+package com.chuman.controller;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptiveConcurrencyLimiterTests {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(5);
+
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(50);
+
+    @Test
+    void givenFullLimit_whenReadAndWriteArrive_thenReadIsShedFirst(){
+        //given or setup
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(10, 1, 100, 0.8, 1.5, 0.2, 100);
+        for (int i = 0; i < 8; i++) {
+            assertThat(limiter.tryAcquire(false)).isTrue();
+        }
+        //when action
+        boolean read = limiter.tryAcquire(false);
+        boolean write = limiter.tryAcquire(true);
+        //then
+        assertThat(read).isFalse();
+        assertThat(write).isTrue();
+        assertThat(limiter.getInflight()).isEqualTo(9);
+    }
+
+    @Test
+    void givenLatencyRise_whenSampled_thenLimitShrinks(){
+        //given or setup
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(50, 4, 200, 0.8, 1.5, 0.2, 600);
+        for (int i = 0; i < 100; i++) {
+            limiter.sample(FAST, 50);
+        }
+        int before = limiter.getLimit();
+        //when action
+        for (int i = 0; i < 50; i++) {
+            limiter.sample(SLOW, limiter.getLimit());
+        }
+        //then
+        assertThat(limiter.getLimit()).isLessThan(before / 2);
+        assertThat(limiter.getLimit()).isGreaterThanOrEqualTo(4);
+    }
+
+    @Test
+    void givenSteadyLatency_whenSampled_thenLimitGrowsUpToMax(){
+        //given or setup
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(10, 4, 40, 0.8, 1.5, 0.2, 600);
+        //when action
+        for (int i = 0; i < 500; i++) {
+            limiter.sample(FAST, limiter.getLimit());
+        }
+        //then
+        assertThat(limiter.getLimit()).isEqualTo(40);
+    }
+
+    @Test
+    void givenLittleTraffic_whenSampled_thenLimitIsNotProbed(){
+        //given or setup
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(20, 4, 200, 0.8, 1.5, 0.2, 600);
+        //when action
+        for (int i = 0; i < 100; i++) {
+            limiter.sample(SLOW, 1);
+        }
+        //then
+        assertThat(limiter.getLimit()).isEqualTo(20);
+    }
+}
@@ -1,27 +1,49 @@
 package com.chuman.controller;
 
 
+import com.chuman.model.BulkEmployeeResult;
+import com.chuman.model.EmployeeChange;
+import com.chuman.model.EmployeeCollectionVersion;
 import com.chuman.model.EmployeeDTO;
+import com.chuman.model.EmployeeDelta;
+import com.chuman.model.EmployeePage;
+import com.chuman.model.EmployeeRevision;
+import com.chuman.model.EmployeeSearchPage;
+import com.chuman.model.EmployeeSummary;
+import com.chuman.model.EmployeeWatermark;
 import com.chuman.service.EmployeeService;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
 import org.hamcrest.CoreMatchers;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentMatchers;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.ResultActions;
 import org.springframework.test.web.servlet.result.MockMvcResultHandlers;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
 import static org.mockito.BDDMockito.willDoNothing;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 
 @WebMvcTest
@@ -30,6 +52,8 @@ public class EmployeeControllerTests {
     private MockMvc mockMvc;
     @MockBean
     private EmployeeService employeeService;
+    @MockBean
+    private EmployeeChangeStream changeStream;
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -58,32 +82,270 @@ public class EmployeeControllerTests {
 
     }
 
+    //gateway retry with the same key
     @Test
-     void givenListOfEmployee_whenGetAllEmployee_thenReturnEmployeesList() throws Exception{
+     void givenIdempotencyKey_whenCreateEmployeeTwice_thenReplayWithoutService() throws Exception {
+        //given
+        EmployeeDTO employee = EmployeeDTO.builder()
+                .firstName("chuman")
+                .lastName("panda")
+                .email("chuman.panda@gmail.com").build();
+        given(employeeService.saveEmployee(ArgumentMatchers.any(EmployeeDTO.class)))
+                .willAnswer((invocation) -> invocation.getArgument(0));
+        String body = objectMapper.writeValueAsString(employee);
+        mockMvc.perform(post("/api/employees").header(IdempotencyKeyFilter.IDEMPOTENCY_KEY_HEADER, "create-replay")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body))
+                .andExpect(MockMvcResultMatchers.status().isCreated());
+        //when
+        ResultActions responce = mockMvc.perform(post("/api/employees").header(IdempotencyKeyFilter.IDEMPOTENCY_KEY_HEADER, "create-replay")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body));
+        //then
+        responce.andDo(MockMvcResultHandlers.print())
+                .andExpect(MockMvcResultMatchers.status().isCreated())
+                .andExpect(MockMvcResultMatchers.header().string(IdempotencyKeyFilter.REPLAYED_HEADER, "true"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.email", CoreMatchers.is(employee.getEmail())));
+        verify(employeeService, times(1)).saveEmployee(ArgumentMatchers.any(EmployeeDTO.class));
+    }
+
+    //same key with a different body
+    @Test
+     void givenReusedIdempotencyKey_whenCreateDifferentEmployee_thenReturnUnprocessable() throws Exception {
+        //given
+        given(employeeService.saveEmployee(ArgumentMatchers.any(EmployeeDTO.class)))
+                .willAnswer((invocation) -> invocation.getArgument(0));
+        mockMvc.perform(post("/api/employees").header(IdempotencyKeyFilter.IDEMPOTENCY_KEY_HEADER, "create-reused")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(EmployeeDTO.builder().email("chuman.panda@gmail.com").build())))
+                .andExpect(MockMvcResultMatchers.status().isCreated());
+        //when
+        ResultActions responce = mockMvc.perform(post("/api/employees").header(IdempotencyKeyFilter.IDEMPOTENCY_KEY_HEADER, "create-reused")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(EmployeeDTO.builder().email("kalia.kumar@gmail.com").build())));
+        //then
+        responce.andExpect(MockMvcResultMatchers.status().isUnprocessableEntity());
+    }
+
+    @Test
+     void givenEmployeeList_whenCreateEmployees_thenReturnPerItemResults() throws Exception {
         //given
         List<EmployeeDTO> employeeList = new ArrayList<>();
         employeeList.add(EmployeeDTO.builder().firstName("chuman").lastName("panda").email("chuman@gmail.com").build());
         employeeList.add(EmployeeDTO.builder().firstName("kalia").lastName("kumar").email("kalia@gmail.com").build());
+        given(employeeService.saveEmployees(ArgumentMatchers.anyList())).willReturn(List.of(
+                new BulkEmployeeResult(0, "chuman@gmail.com", BulkEmployeeResult.Status.CREATED, 1L, null),
+                new BulkEmployeeResult(1, "kalia@gmail.com", BulkEmployeeResult.Status.DUPLICATE, null, "Employee already exit with given email")));
+        //when
+        ResultActions responce = mockMvc.perform(post("/api/employees/bulk")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(employeeList)));
+        //then
+        responce.andDo(MockMvcResultHandlers.print())
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].status", CoreMatchers.is("CREATED")))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].id", CoreMatchers.is(1)))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[1].status", CoreMatchers.is("DUPLICATE")));
+    }
+
+    @Test
+     void givenListOfEmployee_whenGetAllEmployee_thenReturnEmployeesList() throws Exception{
+        //given
+        List<EmployeeSummary> employeeList = new ArrayList<>();
+        employeeList.add(new EmployeeSummary(1L, "chuman", "panda", "chuman@gmail.com", 0L));
+        employeeList.add(new EmployeeSummary(2L, "kalia", "kumar", "kalia@gmail.com", 0L));
 
-        given(employeeService.getAllEmployee()).willReturn(employeeList);
+        given(employeeService.getEmployeePage(0L, 100)).willReturn(new EmployeePage(employeeList, null));
         //when
         ResultActions responce = mockMvc.perform(get("/api/employees"));
         //then
         responce.andExpect(MockMvcResultMatchers.status().isOk())
                 .andDo(MockMvcResultHandlers.print())
                 .andExpect(MockMvcResultMatchers.jsonPath("$.size()",
-                        CoreMatchers.is(employeeList.size())));
+                        CoreMatchers.is(employeeList.size())))
+                .andExpect(MockMvcResultMatchers.header().doesNotExist(EmployeeController.NEXT_CURSOR_HEADER));
+    }
+
+    //binary encoding for service callers
+    @Test
+     void givenCborAccept_whenGetAllEmployee_thenReturnCborEmployeesList() throws Exception{
+        //given
+        List<EmployeeSummary> employeeList = new ArrayList<>();
+        employeeList.add(new EmployeeSummary(1L, "chuman", "panda", "chuman@gmail.com", 0L));
+        employeeList.add(new EmployeeSummary(2L, "kalia", "kumar", "kalia@gmail.com", 0L));
+
+        given(employeeService.getEmployeePage(0L, 100)).willReturn(new EmployeePage(employeeList, null));
+        //when
+        MvcResult result = mockMvc.perform(get("/api/employees").accept(MediaType.APPLICATION_CBOR))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.content().contentType(MediaType.APPLICATION_CBOR))
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.VARY, CoreMatchers.containsString(HttpHeaders.ACCEPT)))
+                .andReturn();
+        //then
+        JsonNode employees = new CBORMapper().readTree(result.getResponse().getContentAsByteArray());
+        assertThat(employees.size()).isEqualTo(employeeList.size());
+        assertThat(employees.get(1).get("email").asText()).isEqualTo("kalia@gmail.com");
+    }
+
+    @Test
+     void givenMoreEmployeesThanLimit_whenGetEmployeePage_thenReturnNextCursor() throws Exception{
+        //given
+        List<EmployeeSummary> employeeList = new ArrayList<>();
+        employeeList.add(new EmployeeSummary(11L, "chuman", "panda", "chuman@gmail.com", 0L));
+        employeeList.add(new EmployeeSummary(12L, "kalia", "kumar", "kalia@gmail.com", 0L));
+
+        given(employeeService.getEmployeePage(10L, 2)).willReturn(new EmployeePage(employeeList, 12L));
+        //when
+        ResultActions responce = mockMvc.perform(get("/api/employees").param("after", "10").param("limit", "2"));
+        //then
+        responce.andExpect(MockMvcResultMatchers.status().isOk())
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.size()",
+                        CoreMatchers.is(employeeList.size())))
+                .andExpect(MockMvcResultMatchers.header().string(EmployeeController.NEXT_CURSOR_HEADER, "12"))
+                .andExpect(MockMvcResultMatchers.header().string("Link",
+                        CoreMatchers.containsString("after=12")));
     }
+    @Test
+     void givenListOfEmployee_whenExportEmployees_thenStreamNewlineDelimitedJson() throws Exception{
+        //given
+        List<EmployeeSummary> employeeList = new ArrayList<>();
+        employeeList.add(new EmployeeSummary(1L, "chuman", "panda", "chuman@gmail.com", 0L));
+        employeeList.add(new EmployeeSummary(2L, "kalia", "kumar", "kalia@gmail.com", 0L));
+
+        willAnswer(invocation -> {
+            Consumer<EmployeeSummary> consumer = invocation.getArgument(0);
+            employeeList.forEach(consumer);
+            return null;
+        }).given(employeeService).exportEmployees(ArgumentMatchers.any());
+        //when
+        MvcResult result = mockMvc.perform(get("/api/employees/export"))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+        ResultActions responce = mockMvc.perform(asyncDispatch(result));
+        //then
+        responce.andExpect(MockMvcResultMatchers.status().isOk())
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(MockMvcResultMatchers.content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(MockMvcResultMatchers.content().string(
+                        objectMapper.writeValueAsString(employeeList.get(0)) + "\n"
+                                + objectMapper.writeValueAsString(employeeList.get(1)) + "\n"));
+    }
+
+    //change stream resumed with Last-Event-ID
+    @Test
+     void givenLastEventId_whenStreamChanges_thenSendEventsFromSubscription() throws Exception{
+        //given
+        EmployeeSummary chuman = new EmployeeSummary(1L, "chuman", "panda", "chuman.panda@gmail.com", 0L);
+        given(changeStream.subscribe("7-41")).willAnswer(invocation -> {
+            SseEmitter emitter = new SseEmitter();
+            emitter.send(SseEmitter.event().id("7-42").name("created")
+                    .data(new EmployeeChange(42L, EmployeeChange.Type.CREATED, 1L, chuman), MediaType.APPLICATION_JSON));
+            emitter.complete();
+            return emitter;
+        });
+        //when
+        MvcResult result = mockMvc.perform(get("/api/employees/changes").header("Last-Event-ID", "7-41"))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+        ResultActions responce = mockMvc.perform(asyncDispatch(result));
+        //then
+        responce.andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.content().contentTypeCompatibleWith(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(MockMvcResultMatchers.content().string(CoreMatchers.containsString("id:7-42\nevent:created\n")))
+                .andExpect(MockMvcResultMatchers.content().string(CoreMatchers.containsString("\"email\":\"chuman.panda@gmail.com\"")));
+    }
+
+    //change stream at its subscriber limit
+    @Test
+     void givenNoSubscriberSlot_whenStreamChanges_thenReturn503() throws Exception{
+        //given
+        given(changeStream.subscribe(null)).willReturn(null);
+        //when
+        ResultActions responce = mockMvc.perform(get("/api/employees/changes"));
+        //then
+        responce.andExpect(MockMvcResultMatchers.status().isServiceUnavailable())
+                .andExpect(MockMvcResultMatchers.header().exists(HttpHeaders.RETRY_AFTER));
+    }
+
+    //delta sync from a watermark
+    @Test
+     void givenWatermark_whenGetEmployeeChanges_thenReturnChangesAndNextWatermark() throws Exception{
+        //given
+        Instant since = Instant.parse("2022-06-01T10:00:00Z");
+        EmployeeWatermark watermark = new EmployeeWatermark(since, 1L, since);
+        List<EmployeeRevision> changes = List.of(
+                new EmployeeRevision(2L, "chuman", "panda", "chuman.panda@gmail.com", 0L, since.plusSeconds(1)),
+                new EmployeeRevision(3L, since.plusSeconds(2)));
+        EmployeeDelta delta = new EmployeeDelta(changes, new EmployeeWatermark(since.plusSeconds(2), 3L, since).toToken(), true);
+        given(employeeService.getEmployeeChanges(ArgumentMatchers.argThat(value -> value.getId() == 1L
+                && value.getTime().equals(since)), ArgumentMatchers.eq(1000))).willReturn(Optional.of(delta));
+        //when
+        ResultActions responce = mockMvc.perform(get("/api/employees").param("since", watermark.toToken()));
+        //then
+        responce.andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.changes.size()", CoreMatchers.is(2)))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.changes[0].email", CoreMatchers.is("chuman.panda@gmail.com")))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.changes[1].deleted", CoreMatchers.is(true)))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.watermark", CoreMatchers.is(delta.getWatermark())))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.hasMore", CoreMatchers.is(true)));
+    }
+
+    //delta sync with a token the server did not issue
+    @Test
+     void givenMalformedWatermark_whenGetEmployeeChanges_thenReturnBadRequest() throws Exception{
+        //when
+        ResultActions responce = mockMvc.perform(get("/api/employees").param("since", "yesterday"));
+        //then
+        responce.andExpect(MockMvcResultMatchers.status().isBadRequest());
+    }
+
+    //delta sync past the tombstone retention
+    @Test
+     void givenExpiredWatermark_whenGetEmployeeChanges_thenReturnGone() throws Exception{
+        //given
+        Instant since = Instant.parse("2022-01-01T10:00:00Z");
+        given(employeeService.getEmployeeChanges(ArgumentMatchers.any(EmployeeWatermark.class), ArgumentMatchers.anyInt()))
+                .willReturn(Optional.empty());
+        //when
+        ResultActions responce = mockMvc.perform(get("/api/employees")
+                .param("since", new EmployeeWatermark(since, 1L, since).toToken()));
+        //then
+        responce.andExpect(MockMvcResultMatchers.status().isGone());
+    }
+
+    //typeahead search
+    @Test
+     void givenMatchingEmployees_whenSearchEmployees_thenReturnPageWithNextOffset() throws Exception{
+        //given
+        EmployeeSummary chuman = new EmployeeSummary(1L, "chuman", "panda", "chuman.panda@gmail.com", 0L);
+        given(employeeService.searchEmployees("chu", 0, 1)).willReturn(new EmployeeSearchPage(List.of(chuman), 1));
+        //when
+        ResultActions responce = mockMvc.perform(get("/api/employees/search").param("q", "chu").param("limit", "1"));
+        //then
+        responce.andExpect(MockMvcResultMatchers.status().isOk())
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.size()", CoreMatchers.is(1)))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].email", CoreMatchers.is(chuman.getEmail())))
+                .andExpect(MockMvcResultMatchers.header().string(EmployeeController.NEXT_CURSOR_HEADER, "1"));
+    }
+
+    //blank search is rejected
+    @Test
+     void givenBlankQuery_whenSearchEmployees_thenReturnBadRequest() throws Exception{
+        //when
+        ResultActions responce = mockMvc.perform(get("/api/employees/search").param("q", " "));
+        //then
+        responce.andExpect(MockMvcResultMatchers.status().isBadRequest());
+    }
+
     //+ve use case test
     @Test
      void givenEmployeeId_whenGetEmployeeById_thenReturnEmployeesObject() throws Exception{
         //given
         long employeeId=1L;
-        EmployeeDTO employee = EmployeeDTO.builder()
-                .firstName("chuman")
-                .lastName("panda")
-                .email("chuman.panda@gmail.com").build();
-        given(employeeService.getEmployeeById(employeeId)).willReturn(Optional.of(employee));
+        EmployeeSummary employee = new EmployeeSummary(employeeId, "chuman", "panda", "chuman.panda@gmail.com", 0L);
+        given(employeeService.getEmployeeSummary(employeeId)).willReturn(Optional.of(employee));
         //when
         ResultActions responce = mockMvc.perform(get("/api/employees/{id}",employeeId));
 
@@ -98,16 +360,26 @@ public class EmployeeControllerTests {
                         CoreMatchers.is(employee.getEmail())));
     }
 
+    //statement count header, the mocked service runs no sql
+    @Test
+     void givenEmployeeId_whenGetEmployeeById_thenReturnSqlCountHeader() throws Exception{
+        //given
+        long employeeId=1L;
+        given(employeeService.getEmployeeSummary(employeeId))
+                .willReturn(Optional.of(new EmployeeSummary(employeeId, "chuman", "panda", "chuman.panda@gmail.com", 0L)));
+        //when
+        ResultActions responce = mockMvc.perform(get("/api/employees/{id}",employeeId));
+        //then
+        responce.andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string(SqlCountHeaderAdvice.SQL_COUNT_HEADER, "0"));
+    }
+
     //-ve use case test
     @Test
      void givenInvalidEmployeeId_whenGetEmployeeById_thenReturnEmpty() throws Exception{
         //given
         long employeeId=1L;
-        EmployeeDTO employee = EmployeeDTO.builder()
-                .firstName("chuman")
-                .lastName("panda")
-                .email("chuman.panda@gmail.com").build();
-        given(employeeService.getEmployeeById(employeeId)).willReturn(Optional.empty());
+        given(employeeService.getEmployeeSummary(employeeId)).willReturn(Optional.empty());
         //when
         ResultActions responce = mockMvc.perform(get("/api/employees/{id}",employeeId));
 
@@ -122,20 +394,20 @@ public class EmployeeControllerTests {
      void givenUpdatedEmployee_whenUpdatedEmployee_thenReturnUpdatedEmployeeObject() throws Exception{
         //given
         long employeeId=1L;
-        EmployeeDTO savedEmployee = EmployeeDTO.builder()
-                .firstName("chuman")
-                .lastName("panda")
-                .email("chuman.panda@gmail.com").build();
 
         EmployeeDTO updateEmployee = EmployeeDTO.builder()
                 .firstName("kalia")
                 .lastName("kumar")
                 .email("kaliakumar@gmail.com").build();
 
-        given(employeeService.getEmployeeById(employeeId)).willReturn(Optional.of(savedEmployee));
-
-        given(employeeService.updateEmployee(ArgumentMatchers.any(EmployeeDTO.class)))
-                .willAnswer((invocation) -> invocation.getArgument(0));
+        given(employeeService.replaceEmployee(ArgumentMatchers.eq(employeeId), ArgumentMatchers.any(EmployeeDTO.class),
+                ArgumentMatchers.isNull()))
+                .willAnswer((invocation) -> {
+                    EmployeeDTO replacement = invocation.getArgument(1);
+                    replacement.setId(employeeId);
+                    replacement.setVersion(1L);
+                    return Optional.of(replacement);
+                });
         //when
         ResultActions responce = mockMvc.perform(put("/api/employees/{id}",employeeId)
                 .contentType(MediaType.APPLICATION_JSON)
@@ -149,8 +421,10 @@ public class EmployeeControllerTests {
                 .andExpect(MockMvcResultMatchers.jsonPath("$.lastName",
                         CoreMatchers.is(updateEmployee.getLastName())))
                 .andExpect(MockMvcResultMatchers.jsonPath("$.email",
-                        CoreMatchers.is(updateEmployee.getEmail())));;
-
+                        CoreMatchers.is(updateEmployee.getEmail())))
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.ETAG, "W/\"1\""));
+        //an unconditional put never takes its version from the cached or replica copy
+        verify(employeeService, never()).getEmployeeSummary(employeeId);
     }
 
     //-ve use case test for update method
@@ -158,20 +432,15 @@ public class EmployeeControllerTests {
      void givenUpdatedEmployee_whenUpdatedEmployee_thenReturnEmpty() throws Exception{
         //given
         long employeeId=1L;
-        EmployeeDTO savedEmployee = EmployeeDTO.builder()
-                .firstName("chuman")
-                .lastName("panda")
-                .email("chuman.panda@gmail.com").build();
 
         EmployeeDTO updateEmployee = EmployeeDTO.builder()
                 .firstName("kalia")
                 .lastName("kumar")
                 .email("kaliakumar@gmail.com").build();
 
-        given(employeeService.getEmployeeById(employeeId)).willReturn(Optional.empty());
-
-        given(employeeService.updateEmployee(ArgumentMatchers.any(EmployeeDTO.class)))
-                .willAnswer((invocation) -> invocation.getArgument(0));
+        given(employeeService.replaceEmployee(ArgumentMatchers.eq(employeeId), ArgumentMatchers.any(EmployeeDTO.class),
+                ArgumentMatchers.isNull()))
+                .willReturn(Optional.empty());
         //when
         ResultActions responce = mockMvc.perform(put("/api/employees/{id}",employeeId)
                 .contentType(MediaType.APPLICATION_JSON)
@@ -183,6 +452,163 @@ public class EmployeeControllerTests {
 
     }
 
+    //patch method test +ve use case
+    @Test
+     void givenPartialEmployee_whenPatchEmployee_thenReturnNoContent() throws Exception{
+        //given
+        long employeeId=1L;
+        EmployeeDTO patch = EmployeeDTO.builder().email("kaliakumar@gmail.com").build();
+        given(employeeService.patchEmployee(ArgumentMatchers.eq(employeeId), ArgumentMatchers.any(EmployeeDTO.class),
+                ArgumentMatchers.isNull())).willReturn(true);
+        //when
+        ResultActions responce = mockMvc.perform(patch("/api/employees/{id}",employeeId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(patch)));
+        //then
+        responce.andExpect(MockMvcResultMatchers.status().isNoContent())
+                .andDo(MockMvcResultHandlers.print());
+    }
+
+    //patch method test -ve use case
+    @Test
+     void givenUnknownEmployee_whenPatchEmployee_thenReturnNotFound() throws Exception{
+        //given
+        long employeeId=1L;
+        EmployeeDTO patch = EmployeeDTO.builder().email("kaliakumar@gmail.com").build();
+        given(employeeService.patchEmployee(ArgumentMatchers.eq(employeeId), ArgumentMatchers.any(EmployeeDTO.class),
+                ArgumentMatchers.isNull())).willReturn(false);
+        //when
+        ResultActions responce = mockMvc.perform(patch("/api/employees/{id}",employeeId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(patch)));
+        //then
+        responce.andExpect(MockMvcResultMatchers.status().isNotFound())
+                .andDo(MockMvcResultHandlers.print());
+        verify(employeeService, never()).getEmployeeSummary(employeeId);
+    }
+
+    //conditional get of an unchanged employee
+    @Test
+     void givenMatchingETag_whenGetEmployeeById_thenReturnNotModified() throws Exception{
+        //given
+        long employeeId=1L;
+        given(employeeService.getEmployeeVersion(employeeId)).willReturn(Optional.of(3L));
+        //when
+        ResultActions responce = mockMvc.perform(get("/api/employees/{id}",employeeId)
+                .header(HttpHeaders.IF_NONE_MATCH, "\"3\""));
+        //then
+        responce.andExpect(MockMvcResultMatchers.status().isNotModified())
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.ETAG, "W/\"3\""))
+                .andDo(MockMvcResultHandlers.print());
+        verify(employeeService, never()).getEmployeeSummary(employeeId);
+    }
+
+    //conditional get of a changed employee returns the body and new tag
+    @Test
+     void givenStaleETag_whenGetEmployeeById_thenReturnEmployeeWithETag() throws Exception{
+        //given
+        long employeeId=1L;
+        EmployeeSummary employee = new EmployeeSummary(employeeId, "chuman", "panda", "chuman.panda@gmail.com", 4L);
+        given(employeeService.getEmployeeVersion(employeeId)).willReturn(Optional.of(4L));
+        given(employeeService.getEmployeeSummary(employeeId)).willReturn(Optional.of(employee));
+        //when
+        ResultActions responce = mockMvc.perform(get("/api/employees/{id}",employeeId)
+                .header(HttpHeaders.IF_NONE_MATCH, "\"3\""));
+        //then
+        responce.andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.ETAG, "W/\"4\""))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.firstName", CoreMatchers.is("chuman")));
+    }
+
+    //conditional get of an unchanged page
+    @Test
+     void givenMatchingETag_whenGetEmployeePage_thenReturnNotModified() throws Exception{
+        //given
+        EmployeeSummary employee = new EmployeeSummary(1L, "chuman", "panda", "chuman.panda@gmail.com", 2L);
+        given(employeeService.getEmployeePage(0L, 100)).willReturn(new EmployeePage(List.of(employee), null));
+        String etag = mockMvc.perform(get("/api/employees"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        given(employeeService.getEmployeePageVersion(0L, 100)).willReturn(new EmployeeCollectionVersion(1L, 2L, 1L, false));
+        //when
+        ResultActions responce = mockMvc.perform(get("/api/employees").header(HttpHeaders.IF_NONE_MATCH, etag));
+        //then
+        responce.andExpect(MockMvcResultMatchers.status().isNotModified())
+                .andDo(MockMvcResultHandlers.print());
+        verify(employeeService, times(1)).getEmployeePage(0L, 100);
+    }
+
+    //update against an old version is rejected
+    @Test
+     void givenStaleIfMatch_whenUpdatedEmployee_thenReturnPreconditionFailed() throws Exception{
+        //given
+        long employeeId=1L;
+        EmployeeDTO updateEmployee = EmployeeDTO.builder()
+                .firstName("kalia").lastName("kumar").email("kaliakumar@gmail.com").build();
+        given(employeeService.replaceEmployee(ArgumentMatchers.eq(employeeId), ArgumentMatchers.any(EmployeeDTO.class),
+                ArgumentMatchers.eq(4L)))
+                .willThrow(new ObjectOptimisticLockingFailureException(EmployeeDTO.class, employeeId));
+        //when
+        ResultActions responce = mockMvc.perform(put("/api/employees/{id}",employeeId)
+                .header(HttpHeaders.IF_MATCH, "\"4\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(updateEmployee)));
+        //then
+        responce.andExpect(MockMvcResultMatchers.status().isPreconditionFailed())
+                .andDo(MockMvcResultHandlers.print());
+    }
+
+    //patch against an old version of an existing employee
+    @Test
+     void givenStaleIfMatch_whenPatchEmployee_thenReturnPreconditionFailed() throws Exception{
+        //given
+        long employeeId=1L;
+        EmployeeDTO patch = EmployeeDTO.builder().email("kaliakumar@gmail.com").build();
+        given(employeeService.patchEmployee(ArgumentMatchers.eq(employeeId), ArgumentMatchers.any(EmployeeDTO.class),
+                ArgumentMatchers.eq(4L))).willReturn(false);
+        given(employeeService.getEmployeeVersion(employeeId)).willReturn(Optional.of(5L));
+        //when
+        ResultActions responce = mockMvc.perform(patch("/api/employees/{id}",employeeId)
+                .header(HttpHeaders.IF_MATCH, "\"4\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(patch)));
+        //then
+        responce.andExpect(MockMvcResultMatchers.status().isPreconditionFailed());
+    }
+
+    //the weak tag handed out by a get is taken back as the row version
+    @Test
+     void givenWeakIfMatch_whenPatchEmployee_thenPatchThatVersion() throws Exception{
+        //given
+        long employeeId=1L;
+        EmployeeDTO patch = EmployeeDTO.builder().email("kaliakumar@gmail.com").build();
+        given(employeeService.patchEmployee(ArgumentMatchers.eq(employeeId), ArgumentMatchers.any(EmployeeDTO.class),
+                ArgumentMatchers.eq(4L))).willReturn(true);
+        //when
+        ResultActions responce = mockMvc.perform(patch("/api/employees/{id}",employeeId)
+                .header(HttpHeaders.IF_MATCH, "W/\"4\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(patch)));
+        //then
+        responce.andExpect(MockMvcResultMatchers.status().isNoContent());
+    }
+
+    //delete against an old version is rejected
+    @Test
+     void givenStaleIfMatch_whenDeleteEmployee_thenReturnPreconditionFailed() throws Exception {
+        // given - precondition or setup
+        long employeeId=1L;
+        given(employeeService.deleteEmployee(employeeId, 4L)).willReturn(false);
+        given(employeeService.getEmployeeVersion(employeeId)).willReturn(Optional.of(5L));
+        //when
+        ResultActions responce = mockMvc.perform(delete("/api/employees/{id}",employeeId)
+                .header(HttpHeaders.IF_MATCH, "\"4\""));
+        //then
+        responce.andExpect(MockMvcResultMatchers.status().isPreconditionFailed())
+                .andDo(MockMvcResultHandlers.print());
+        verify(employeeService, never()).deleteEmployee(employeeId);
+    }
+
     // JUnit test for delete employee REST API
     @Test
      void givenEmployeeId_whenDeleteEmployee_thenReturn() throws Exception {
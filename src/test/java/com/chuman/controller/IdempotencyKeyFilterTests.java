@@ -0,0 +1,124 @@
+package com.chuman.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ReadListener;
+import javax.servlet.ServletInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IdempotencyKeyFilterTests {
+
+    private final IdempotencyKeyFilter filter = new IdempotencyKeyFilter(1024 * 1024, Duration.ofMinutes(1), 5000);
+
+    @Test
+    void givenConcurrentRetry_whenFirstStillRunning_thenRetryWaitsAndReplays() throws Exception {
+        //given or setup
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch firstStarted = new CountDownLatch(1);
+        CountDownLatch releaseFirst = new CountDownLatch(1);
+        FilterChain chain = (request, response) -> {
+            executions.incrementAndGet();
+            firstStarted.countDown();
+            try {
+                releaseFirst.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            ((javax.servlet.http.HttpServletResponse) response).setStatus(201);
+            response.getOutputStream().write(request.getInputStream().readAllBytes());
+        };
+        MockHttpServletResponse first = new MockHttpServletResponse();
+        MockHttpServletResponse retry = new MockHttpServletResponse();
+        //when action
+        CompletableFuture<Void> firstCall = CompletableFuture.runAsync(() -> call(chain, first));
+        firstStarted.await(5, TimeUnit.SECONDS);
+        CompletableFuture<Void> retryCall = CompletableFuture.runAsync(() -> call(chain, retry));
+        Thread.sleep(100);
+        releaseFirst.countDown();
+        firstCall.get(5, TimeUnit.SECONDS);
+        retryCall.get(5, TimeUnit.SECONDS);
+        //then
+        assertThat(executions.get()).isEqualTo(1);
+        assertThat(retry.getStatus()).isEqualTo(201);
+        assertThat(retry.getContentAsString()).isEqualTo("{\"email\":\"chuman.panda@gmail.com\"}");
+        assertThat(retry.getHeader(IdempotencyKeyFilter.REPLAYED_HEADER)).isEqualTo("true");
+    }
+
+    @Test
+    void givenServerError_whenRetry_thenRunAgain() throws Exception {
+        //given or setup
+        AtomicInteger executions = new AtomicInteger();
+        FilterChain chain = (request, response) -> {
+            int attempt = executions.incrementAndGet();
+            ((javax.servlet.http.HttpServletResponse) response).setStatus(attempt == 1 ? 503 : 201);
+        };
+        MockHttpServletResponse first = new MockHttpServletResponse();
+        MockHttpServletResponse retry = new MockHttpServletResponse();
+        //when action
+        call(chain, first);
+        call(chain, retry);
+        //then
+        assertThat(executions.get()).isEqualTo(2);
+        assertThat(first.getStatus()).isEqualTo(503);
+        assertThat(retry.getStatus()).isEqualTo(201);
+    }
+
+    @Test
+    void givenAsyncReader_whenSetReadListener_thenReadWholeBody() throws Exception {
+        //given or setup
+        FilterChain chain = (request, response) -> {
+            ServletInputStream input = request.getInputStream();
+            ByteArrayOutputStream body = new ByteArrayOutputStream();
+            input.setReadListener(new ReadListener() {
+                @Override
+                public void onDataAvailable() throws IOException {
+                    byte[] buffer = new byte[8];
+                    int read;
+                    while (input.isReady() && (read = input.read(buffer)) != -1) {
+                        body.write(buffer, 0, read);
+                    }
+                }
+
+                @Override
+                public void onAllDataRead() throws IOException {
+                    ((javax.servlet.http.HttpServletResponse) response).setStatus(201);
+                    response.getOutputStream().write(body.toByteArray());
+                }
+
+                @Override
+                public void onError(Throwable throwable) {
+                    ((javax.servlet.http.HttpServletResponse) response).setStatus(500);
+                }
+            });
+        };
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        //when action
+        call(chain, response);
+        //then
+        assertThat(response.getStatus()).isEqualTo(201);
+        assertThat(response.getContentAsString()).isEqualTo("{\"email\":\"chuman.panda@gmail.com\"}");
+    }
+
+    private void call(FilterChain chain, MockHttpServletResponse response){
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/employees");
+        request.addHeader(IdempotencyKeyFilter.IDEMPOTENCY_KEY_HEADER, "retry-key");
+        request.setContent("{\"email\":\"chuman.panda@gmail.com\"}".getBytes(StandardCharsets.UTF_8));
+        try {
+            filter.doFilter(request, response, chain);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -1,6 +1,6 @@
 package com.chuman.integration;
 
-import com.chuman.model.Employee;
+import com.chuman.model.EmployeeDTO;
 import com.chuman.repository.EmployeeRepository;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.hamcrest.CoreMatchers;
@@ -20,6 +20,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
+import static com.chuman.integration.SqlStatementAssertions.assertStatementsAtMost;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.BDDMockito.willDoNothing;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -44,7 +45,7 @@ public class EmployeeControllerIntegrationTests {
     @Test
     public void givenEmployeeObject_whenCreateEmployee_thenReturnSavedEmployee() throws Exception {
         //given
-        Employee employee = Employee.builder()
+        EmployeeDTO employee = EmployeeDTO.builder()
                 .firstName("chuman")
                 .lastName("panda")
                 .email("chuman.panda@gmail.com").build();
@@ -67,9 +68,9 @@ public class EmployeeControllerIntegrationTests {
     @Test
     public void givenListOfEmployee_whenGetAllEmployee_thenReturnEmployeesList() throws Exception{
         //given
-        List<Employee> employeeList = new ArrayList<>();
-        employeeList.add(Employee.builder().firstName("chuman").lastName("panda").email("chuman@gmail.com").build());
-        employeeList.add(Employee.builder().firstName("kalia").lastName("kumar").email("kalia@gmail.com").build());
+        List<EmployeeDTO> employeeList = new ArrayList<>();
+        employeeList.add(EmployeeDTO.builder().firstName("chuman").lastName("panda").email("chuman@gmail.com").build());
+        employeeList.add(EmployeeDTO.builder().firstName("kalia").lastName("kumar").email("kalia@gmail.com").build());
 
         employeeRepository.saveAll(employeeList);
         //when
@@ -81,11 +82,27 @@ public class EmployeeControllerIntegrationTests {
                         CoreMatchers.is(employeeList.size())));
     }
 
+    //one keyset query per page, a second fetch of the whole table would show up here
+    @Test
+    public void givenListOfEmployee_whenGetAllEmployee_thenRunAtMostTwoStatements() throws Exception{
+        //given
+        List<EmployeeDTO> employeeList = new ArrayList<>();
+        employeeList.add(EmployeeDTO.builder().firstName("chuman").lastName("panda").email("chuman@gmail.com").build());
+        employeeList.add(EmployeeDTO.builder().firstName("kalia").lastName("kumar").email("kalia@gmail.com").build());
+
+        employeeRepository.saveAll(employeeList);
+        //when
+        //then
+        assertStatementsAtMost(2, () -> mockMvc.perform(get("/api/employees"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().exists("X-SQL-Count")));
+    }
+
     //+ve use case test
     @Test
     public void givenEmployeeId_whenGetEmployeeById_thenReturnEmployeesObject() throws Exception{
         //given
-        Employee employee = Employee.builder().firstName("chuman")
+        EmployeeDTO employee = EmployeeDTO.builder().firstName("chuman")
                 .lastName("panda")
                 .email("chuman.panda@gmail.com")
                 .build();
@@ -109,7 +126,7 @@ public class EmployeeControllerIntegrationTests {
     public void givenInvalidEmployeeId_whenGetEmployeeById_thenReturnEmpty() throws Exception{
         //given
         long employeeId=1L;
-        Employee employee = Employee.builder().firstName("chuman")
+        EmployeeDTO employee = EmployeeDTO.builder().firstName("chuman")
                 .lastName("panda")
                 .email("chuman.panda@gmail.com")
                 .build();
@@ -126,13 +143,13 @@ public class EmployeeControllerIntegrationTests {
     @Test
     public void givenUpdatedEmployee_whenUpdatedEmployee_thenReturnUpdatedEmployeeObject() throws Exception{
         //given
-        Employee savedEmployee = Employee.builder()
+        EmployeeDTO savedEmployee = EmployeeDTO.builder()
                 .firstName("chuman")
                 .lastName("panda")
                 .email("chuman.panda@gmail.com").build();
         employeeRepository.save(savedEmployee);
 
-        Employee updateEmployee = Employee.builder()
+        EmployeeDTO updateEmployee = EmployeeDTO.builder()
                 .firstName("kalia")
                 .lastName("kumar")
                 .email("kaliakumar@gmail.com").build();
@@ -158,13 +175,13 @@ public class EmployeeControllerIntegrationTests {
     public void givenUpdatedEmployee_whenUpdatedEmployee_thenReturnEmpty() throws Exception{
         //given
         long employeeId=1L;
-        Employee savedEmployee = Employee.builder()
+        EmployeeDTO savedEmployee = EmployeeDTO.builder()
                 .firstName("chuman")
                 .lastName("panda")
                 .email("chuman.panda@gmail.com").build();
         employeeRepository.save(savedEmployee);
 
-        Employee updateEmployee = Employee.builder()
+        EmployeeDTO updateEmployee = EmployeeDTO.builder()
                 .firstName("kalia")
                 .lastName("kumar")
                 .email("kaliakumar@gmail.com").build();
@@ -183,7 +200,7 @@ public class EmployeeControllerIntegrationTests {
     @Test
     public void givenEmployeeId_whenDeleteEmployee_thenReturn() throws Exception {
         // given - precondition or setup
-        Employee employee = Employee.builder()
+        EmployeeDTO employee = EmployeeDTO.builder()
                 .firstName("chuman")
                 .lastName("panda")
                 .email("chuman.panda@gmail.com").build();
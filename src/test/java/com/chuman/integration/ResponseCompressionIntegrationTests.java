@@ -0,0 +1,73 @@
+package com.chuman.integration;
+
+import com.chuman.model.EmployeeDTO;
+import com.chuman.repository.EmployeeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpHeaders;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+//server.compression only happens in the real servlet container, so this runs tomcat on a random port over in-memory H2
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:compression;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop"})
+class ResponseCompressionIntegrationTests {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+
+    @BeforeEach
+    public void setup(){
+        employeeRepository.deleteAll();
+        List<EmployeeDTO> employees = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            employees.add(EmployeeDTO.builder().firstName("chuman" + i).lastName("panda")
+                    .email("chuman.panda" + i + "@gmail.com").build());
+        }
+        employeeRepository.saveAll(employees);
+    }
+
+    //a strong etag would make tomcat skip compression
+    @Test
+    void givenLargeList_whenGetEmployeesAcceptingGzip_thenReturnGzippedBodyWithWeakETag() throws Exception{
+        //when
+        HttpResponse<byte[]> response = httpClient.send(HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/employees"))
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                .GET()
+                .build(), HttpResponse.BodyHandlers.ofByteArray());
+        //then
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(response.headers().firstValue(HttpHeaders.CONTENT_ENCODING)).hasValue("gzip");
+        assertThat(response.headers().firstValue(HttpHeaders.ETAG)).hasValueSatisfying(etag -> assertThat(etag).startsWith("W/\""));
+        assertThat(gunzip(response.body())).contains("\"email\":\"chuman.panda99@gmail.com\"");
+    }
+
+    private static String gunzip(byte[] body) throws IOException{
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
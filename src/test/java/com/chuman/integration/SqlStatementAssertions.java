@@ -0,0 +1,37 @@
+package com.chuman.integration;
+
+import com.chuman.config.SqlStatementCounter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+//statement count assertions around any code that reaches hibernate, e.g. a mockMvc call:
+//SqlStatementAssertions.assertStatementsAtMost(2, () -> mockMvc.perform(get("/api/employees")));
+public final class SqlStatementAssertions {
+
+    @FunctionalInterface
+    public interface Action {
+        void run() throws Exception;
+    }
+
+    private SqlStatementAssertions() {
+    }
+
+    public static SqlStatementCounter.Scope countStatements(Action action) throws Exception {
+        try (SqlStatementCounter.Scope scope = SqlStatementCounter.begin()) {
+            action.run();
+            return scope;
+        }
+    }
+
+    public static void assertStatementsAtMost(int max, Action action) throws Exception {
+        SqlStatementCounter.Scope scope = countStatements(action);
+        assertThat(scope.getCount())
+                .as("sql statements, ran %s", scope.getStatements())
+                .isLessThanOrEqualTo(max);
+    }
+
+    public static void assertNoRepeatedStatements(int threshold, Action action) throws Exception {
+        SqlStatementCounter.Scope scope = countStatements(action);
+        assertThat(scope.repeated(threshold)).as("statements run %s or more times", threshold).isEmpty();
+    }
+}
@@ -0,0 +1,205 @@
+package com.chuman.load;
+
+import com.chuman.model.EmployeeDTO;
+import com.chuman.service.EmployeeService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.DoubleAccumulator;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+//injects database latency on every connection checkout and drives more concurrent clients than the pool has
+//connections. the limiter should shrink, shed reads before writes with 503 + Retry-After, and keep admitted
+//requests from queueing for the whole pool. run with mvn -Pload-test test, the shape is printed.
+@Tag("load")
+@ActiveProfiles("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "spring.datasource.hikari.maximum-pool-size=10")
+class ConcurrencyLimitLoadTests {
+
+    private static final AtomicLong INJECTED_LATENCY_MS = new AtomicLong();
+
+    private static final int CLIENTS = 64;
+
+    private static final int BASELINE_SECONDS = 5;
+
+    private static final int SECONDS = 20;
+
+    private static final int OK = 0;
+
+    private static final int SHED = 1;
+
+    private static final int OTHER = 2;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    private final AtomicLong emails = new AtomicLong();
+
+    @Test
+    void givenSlowDatabase_whenOverloaded_thenReadsAreShedBeforeWrites() throws Exception {
+        //given or setup
+        for (int i = 0; i < 1000; i++) {
+            employeeService.saveEmployee(newEmployee());
+        }
+        //a few clients on a fast database teach the limiter the baseline latency
+        drive(8, BASELINE_SECONDS, new AtomicLongArray(3), new AtomicLongArray(3), new AtomicLong());
+        double initialLimit = limit();
+        INJECTED_LATENCY_MS.set(50);
+        //when action
+        AtomicLongArray reads = new AtomicLongArray(3);
+        AtomicLongArray writes = new AtomicLongArray(3);
+        AtomicLong missingRetryAfter = new AtomicLong();
+        ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor();
+        DoubleAccumulator lowestLimit = new DoubleAccumulator(Math::min, initialLimit);
+        sampler.scheduleAtFixedRate(() -> lowestLimit.accumulate(limit()), 0, 100, TimeUnit.MILLISECONDS);
+        try {
+            drive(CLIENTS, SECONDS, reads, writes, missingRetryAfter);
+        } finally {
+            sampler.shutdownNow();
+            INJECTED_LATENCY_MS.set(0);
+        }
+        //then
+        double readShedRate = rate(reads, SHED);
+        double writeShedRate = rate(writes, SHED);
+        System.out.println("limit " + initialLimit + " lowest " + lowestLimit.get() + " final " + limit()
+                + ", reads ok/shed/other " + reads + ", writes ok/shed/other " + writes);
+        assertThat(lowestLimit.get()).isLessThan(initialLimit);
+        assertThat(readShedRate).isGreaterThan(0);
+        assertThat(readShedRate).isGreaterThan(writeShedRate);
+        assertThat(missingRetryAfter.get()).isZero();
+        assertThat(reads.get(OTHER) + writes.get(OTHER)).isZero();
+    }
+
+    //20% creates, the rest keyset page reads, outcomes counted per priority
+    private void drive(int clients, int seconds, AtomicLongArray reads, AtomicLongArray writes,
+                       AtomicLong missingRetryAfter) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(clients);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < clients; i++) {
+                futures.add(pool.submit(() -> {
+                    while (System.nanoTime() < deadline) {
+                        boolean write = ThreadLocalRandom.current().nextInt(100) < 20;
+                        HttpResponse<String> response = client.send(write ? create() : read(), HttpResponse.BodyHandlers.ofString());
+                        int outcome = response.statusCode() == 503 ? SHED : response.statusCode() / 100 == 2 ? OK : OTHER;
+                        if (outcome == SHED && response.headers().firstValue("Retry-After").isEmpty()) {
+                            missingRetryAfter.incrementAndGet();
+                        }
+                        (write ? writes : reads).incrementAndGet(outcome);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private double limit() {
+        return meterRegistry.get("employee.concurrency.limit").gauge().value();
+    }
+
+    private static double rate(AtomicLongArray outcomes, int outcome) {
+        long total = outcomes.get(OK) + outcomes.get(SHED) + outcomes.get(OTHER);
+        return total == 0 ? 0 : (double) outcomes.get(outcome) / total;
+    }
+
+    private HttpRequest read() {
+        long id = ThreadLocalRandom.current().nextLong(1, 1000);
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/employees?after=" + id + "&limit=20"))
+                .GET().build();
+    }
+
+    private HttpRequest create() throws Exception {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/employees"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(newEmployee())))
+                .build();
+    }
+
+    private EmployeeDTO newEmployee() {
+        long n = emails.incrementAndGet();
+        return EmployeeDTO.builder()
+                .firstName("shed" + n)
+                .lastName("employee")
+                .email("shed" + n + "@example.com")
+                .build();
+    }
+
+    //every connection checkout waits INJECTED_LATENCY_MS, a stand-in for a database that slowed down
+    @TestConfiguration
+    static class SlowDatabaseConfig {
+
+        @Bean
+        static BeanPostProcessor slowDataSourcePostProcessor() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (!(bean instanceof DataSource) || !beanName.equals("dataSource")) {
+                        return bean;
+                    }
+                    return new DelegatingDataSource((DataSource) bean) {
+                        @Override
+                        public Connection getConnection() throws SQLException {
+                            Connection connection = super.getConnection();
+                            long latency = INJECTED_LATENCY_MS.get();
+                            if (latency > 0) {
+                                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(latency));
+                            }
+                            return connection;
+                        }
+                    };
+                }
+            };
+        }
+    }
+}
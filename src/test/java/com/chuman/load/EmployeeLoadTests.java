@@ -0,0 +1,377 @@
+package com.chuman.load;
+
+import com.chuman.model.BulkEmployeeResult;
+import com.chuman.model.EmployeeDTO;
+import com.chuman.service.EmployeeService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+//throughput and latency of the rest endpoints on embedded h2, excluded from mvn test, run in verify by the ci profile
+//(mvn -Pci verify) or alone with mvn -Pload-test test.
+//compare group commit with -Demployee.group-commit.enabled=true, the results then also carry the commits and the batch
+//sizes of the measured window next to the create p99.
+//fails when p99 or throughput regresses past employee.load.tolerance against load-baseline.properties,
+//the measured numbers are written to target/load-results.properties in the same format.
+//the concurrency limiter is off so the numbers are raw capacity, ConcurrencyLimitLoadTests covers shedding.
+@Tag("load")
+@ActiveProfiles("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "employee.concurrency-limit.enabled=false")
+class EmployeeLoadTests {
+
+    private static final String BASELINE = "/load-baseline.properties";
+
+    private static final Path RESULTS = Paths.get("target", "load-results.properties");
+
+    private static final int SEED_CHUNK = 1000;
+
+    //share of each operation in the traffic mix, in percent
+    private enum Operation {
+        READ(50), LIST(15), CREATE(15), UPDATE(15), DELETE(5);
+
+        private final int percent;
+
+        Operation(int percent) {
+            this.percent = percent;
+        }
+
+        String key() {
+            return name().toLowerCase();
+        }
+
+        static Operation pick(int roll) {
+            int bound = 0;
+            for (Operation operation : values()) {
+                bound += operation.percent;
+                if (roll < bound) {
+                    return operation;
+                }
+            }
+            return READ;
+        }
+    }
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${employee.load.seed}")
+    private int seed;
+
+    @Value("${employee.load.threads}")
+    private int threads;
+
+    @Value("${employee.load.warmup-seconds}")
+    private int warmupSeconds;
+
+    @Value("${employee.load.duration-seconds}")
+    private int durationSeconds;
+
+    @Value("${employee.load.tolerance}")
+    private double tolerance;
+
+    @Value("${employee.group-commit.enabled:false}")
+    private boolean groupCommit;
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    private final AtomicLong emails = new AtomicLong();
+
+    @Test
+    void givenSeededEmployees_whenMixedTraffic_thenWithinBaseline() throws Exception {
+        //given or setup
+        long[] seeded = seedEmployees();
+        run(seeded, warmupSeconds);
+        double[] groupCommitsBefore = groupCommit ? groupCommits() : null;
+        //when action
+        LoadResult result = run(seeded, durationSeconds);
+        //then
+        Properties measured = result.toProperties();
+        if (groupCommit) {
+            putGroupCommits(measured, groupCommitsBefore);
+        }
+        Files.createDirectories(RESULTS.getParent());
+        try (OutputStream out = Files.newOutputStream(RESULTS)) {
+            measured.store(out, "EmployeeLoadTests seed=" + seed + " threads=" + threads
+                    + " duration=" + durationSeconds + "s group-commit=" + groupCommit);
+        }
+        System.out.println(result.summary());
+        assertThat(result.errors).as("non 2xx responses").isZero();
+        assertThat(regressions(measured, baseline())).isEmpty();
+    }
+
+    private long[] seedEmployees() {
+        long[] ids = new long[seed];
+        int seeded = 0;
+        while (seeded < seed) {
+            List<EmployeeDTO> chunk = new ArrayList<>();
+            for (int i = 0; i < Math.min(SEED_CHUNK, seed - seeded); i++) {
+                chunk.add(newEmployee());
+            }
+            for (BulkEmployeeResult result : employeeService.saveEmployees(chunk)) {
+                assertThat(result.getStatus()).isEqualTo(BulkEmployeeResult.Status.CREATED);
+                ids[seeded++] = result.getId();
+            }
+        }
+        return ids;
+    }
+
+    //commits and batched creates so far, the warmup's are subtracted from the measured window
+    private double[] groupCommits() {
+        DistributionSummary batchSizes = meterRegistry.get("employee.group-commit.batch.size").summary();
+        return new double[]{meterRegistry.get("employee.group-commit.commits").counter().count(), batchSizes.totalAmount()};
+    }
+
+    private void putGroupCommits(Properties measured, double[] before) {
+        double[] after = groupCommits();
+        double commits = after[0] - before[0];
+        double batched = after[1] - before[1];
+        measured.setProperty("employee.group-commit.commits", String.valueOf((long) commits));
+        measured.setProperty("employee.group-commit.commits-per-second", LoadResult.format(commits / durationSeconds));
+        measured.setProperty("employee.group-commit.batch.size.mean", LoadResult.format(commits == 0 ? 0 : batched / commits));
+        //the summary's max decays over minutes, so it can still hold the largest batch of the warmup
+        measured.setProperty("employee.group-commit.batch.size.max",
+                LoadResult.format(meterRegistry.get("employee.group-commit.batch.size").summary().max()));
+    }
+
+    private LoadResult run(long[] seeded, int seconds) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        long deadline = System.nanoTime() + Duration.ofSeconds(seconds).toNanos();
+        List<Future<LoadResult>> workers = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            workers.add(pool.submit(() -> drive(seeded, deadline)));
+        }
+        LoadResult total = new LoadResult(seconds);
+        try {
+            for (Future<LoadResult> worker : workers) {
+                total.add(worker.get());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        return total;
+    }
+
+    //one worker, deletes only touch employees this worker created so reads and updates never race them
+    private LoadResult drive(long[] seeded, long deadline) throws IOException, InterruptedException {
+        LoadResult result = new LoadResult(0);
+        List<Long> created = new ArrayList<>();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (System.nanoTime() < deadline) {
+            Operation operation = Operation.pick(random.nextInt(100));
+            if (operation == Operation.DELETE && created.isEmpty()) {
+                operation = Operation.CREATE;
+            }
+            long id = seeded[random.nextInt(seeded.length)];
+            HttpRequest request;
+            switch (operation) {
+                case LIST:
+                    request = get("/api/employees?after=" + id + "&limit=100");
+                    break;
+                case CREATE:
+                    request = send("POST", "/api/employees", objectMapper.writeValueAsString(newEmployee()));
+                    break;
+                case UPDATE:
+                    request = send("PATCH", "/api/employees/" + id, "{\"firstName\":\"load-" + random.nextInt(1000) + "\"}");
+                    break;
+                case DELETE:
+                    request = send("DELETE", "/api/employees/" + created.remove(created.size() - 1), null);
+                    break;
+                default:
+                    request = get("/api/employees/" + id);
+            }
+            long start = System.nanoTime();
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            long elapsed = System.nanoTime() - start;
+            if (response.statusCode() / 100 != 2) {
+                result.errors++;
+                continue;
+            }
+            result.record(operation, elapsed);
+            if (operation == Operation.CREATE) {
+                created.add(objectMapper.readTree(response.body()).get("id").asLong());
+            }
+        }
+        return result;
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(uri(path)).GET().build();
+    }
+
+    private HttpRequest send(String method, String path, String body) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(uri(path));
+        if (body == null) {
+            return builder.method(method, HttpRequest.BodyPublishers.noBody()).build();
+        }
+        return builder.header("Content-Type", "application/json")
+                .method(method, HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+
+    private EmployeeDTO newEmployee() {
+        long n = emails.incrementAndGet();
+        return EmployeeDTO.builder()
+                .firstName("load" + n)
+                .lastName("employee")
+                .email("load" + n + "@example.com")
+                .build();
+    }
+
+    private static Properties baseline() throws IOException {
+        Properties baseline = new Properties();
+        try (InputStream in = EmployeeLoadTests.class.getResourceAsStream(BASELINE)) {
+            baseline.load(in);
+        }
+        return baseline;
+    }
+
+    private List<String> regressions(Properties measured, Properties baseline) {
+        List<String> regressions = new ArrayList<>();
+        for (String key : baseline.stringPropertyNames()) {
+            double expected = Double.parseDouble(baseline.getProperty(key));
+            double actual = Double.parseDouble(measured.getProperty(key, "NaN"));
+            boolean higherIsBetter = key.startsWith("throughput");
+            double bound = higherIsBetter ? expected * (1 - tolerance) : expected * (1 + tolerance);
+            if (Double.isNaN(actual) || (higherIsBetter ? actual < bound : actual > bound)) {
+                regressions.add(key + " " + actual + " against baseline " + expected);
+            }
+        }
+        return regressions;
+    }
+
+    private static final class LoadResult {
+
+        private final int seconds;
+
+        private final Map<Operation, LongList> latencies = new EnumMap<>(Operation.class);
+
+        private long errors;
+
+        private LoadResult(int seconds) {
+            this.seconds = seconds;
+            for (Operation operation : Operation.values()) {
+                latencies.put(operation, new LongList());
+            }
+        }
+
+        void record(Operation operation, long nanos) {
+            latencies.get(operation).add(nanos);
+        }
+
+        void add(LoadResult other) {
+            other.latencies.forEach((operation, values) -> latencies.get(operation).addAll(values));
+            errors += other.errors;
+        }
+
+        Properties toProperties() {
+            Properties properties = new Properties();
+            long total = 0;
+            for (Map.Entry<Operation, LongList> entry : latencies.entrySet()) {
+                long[] sorted = entry.getValue().sorted();
+                total += sorted.length;
+                String key = entry.getKey().key();
+                properties.setProperty(key + ".p50.ms", format(percentile(sorted, 0.50)));
+                properties.setProperty(key + ".p99.ms", format(percentile(sorted, 0.99)));
+            }
+            properties.setProperty("throughput.ops-per-second", format((double) total / seconds));
+            return properties;
+        }
+
+        String summary() {
+            Properties properties = toProperties();
+            StringBuilder summary = new StringBuilder("load result over " + seconds + "s, errors " + errors);
+            properties.stringPropertyNames().stream().sorted()
+                    .forEach(key -> summary.append("\n  ").append(key).append(" = ").append(properties.getProperty(key)));
+            return summary.toString();
+        }
+
+        private static double percentile(long[] sorted, double percentile) {
+            if (sorted.length == 0) {
+                return Double.NaN;
+            }
+            int index = (int) Math.ceil(percentile * sorted.length) - 1;
+            return sorted[Math.max(0, index)] / 1_000_000.0;
+        }
+
+        private static String format(double value) {
+            return String.format(Locale.ROOT, "%.2f", value);
+        }
+    }
+
+    //primitive latency buffer, no boxed long per request
+    private static final class LongList {
+
+        private long[] values = new long[1024];
+
+        private int size;
+
+        void add(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        void addAll(LongList other) {
+            for (int i = 0; i < other.size; i++) {
+                add(other.values[i]);
+            }
+        }
+
+        long[] sorted() {
+            long[] sorted = Arrays.copyOf(values, size);
+            Arrays.sort(sorted);
+            return sorted;
+        }
+    }
+}
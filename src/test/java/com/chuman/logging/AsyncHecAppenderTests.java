@@ -0,0 +1,223 @@
+package com.chuman.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AsyncHecAppenderTests {
+
+    private final LoggerContext loggerContext = new LoggerContext();
+
+    private StubHecServer hec;
+
+    private AsyncHecAppender appender;
+
+    @TempDir
+    Path spoolDirectory;
+
+    @BeforeEach
+    public void setup() throws Exception {
+        hec = new StubHecServer();
+        appender = new AsyncHecAppender();
+        appender.setContext(loggerContext);
+        appender.setName("test");
+        appender.setUrl(hec.url());
+        appender.setToken("test-token");
+        appender.setIndex("main");
+    }
+
+    @AfterEach
+    public void tearDown() {
+        appender.stop();
+        hec.close();
+    }
+
+    @Test
+    void givenFullBatches_whenAppend_thenPostGzippedBatchesToHec() {
+        appender.setBatchSize(10);
+        appender.setLingerMs(50);
+        appender.start();
+
+        for (int i = 0; i < 25; i++) {
+            appender.doAppend(event("employee " + i));
+        }
+
+        assertThat(hec.awaitEvents(25, 5000)).isTrue();
+        assertThat(hec.requests()).isGreaterThanOrEqualTo(3);
+        assertThat(hec.authorizations()).containsOnly("Splunk test-token");
+        assertThat(hec.events().get(0)).contains("\"index\":\"main\"").contains("\"message\":\"employee 0\"");
+        assertThat(appender.getSentEvents()).isEqualTo(25);
+        assertThat(appender.getDroppedEvents()).isZero();
+    }
+
+    @Test
+    void givenPartialBatch_whenLingerExpires_thenBatchIsSent() {
+        appender.setBatchSize(1000);
+        appender.setLingerMs(100);
+        appender.start();
+
+        appender.doAppend(event("only one"));
+
+        assertThat(hec.awaitEvents(1, 2000)).isTrue();
+        assertThat(hec.events().get(0)).contains("only one");
+    }
+
+    @Test
+    void givenSlowHecAndDropPolicy_whenQueueIsFull_thenAppendDropsInsteadOfBlocking() {
+        hec.delay(500);
+        appender.setQueueSize(10);
+        appender.setBatchSize(5);
+        appender.setLingerMs(10);
+        appender.setOverflowPolicy(AsyncHecAppender.OverflowPolicy.DROP);
+        appender.start();
+
+        for (int i = 0; i < 1000; i++) {
+            appender.doAppend(event("burst " + i));
+        }
+
+        assertThat(appender.getBlockedAppends()).isZero();
+        assertThat(appender.getEnqueuedEvents()).isPositive();
+        assertThat(appender.getDroppedEvents()).isPositive();
+        assertThat(appender.getEnqueuedEvents() + appender.getDroppedEvents()).isEqualTo(1000);
+    }
+
+    @Test
+    void givenSlowHecAndBlockPolicy_whenQueueIsFull_thenAppendWaitsForSpace() {
+        hec.delay(20);
+        appender.setQueueSize(10);
+        appender.setBatchSize(10);
+        appender.setLingerMs(10);
+        appender.setOverflowPolicy(AsyncHecAppender.OverflowPolicy.BLOCK);
+        appender.setBlockTimeoutMs(5000);
+        appender.start();
+
+        for (int i = 0; i < 100; i++) {
+            appender.doAppend(event("blocking " + i));
+        }
+
+        assertThat(hec.awaitEvents(100, 10000)).isTrue();
+        assertThat(appender.getDroppedEvents()).isZero();
+        assertThat(appender.getBlockedAppends()).isPositive();
+    }
+
+    @Test
+    void givenHecError_whenFlush_thenCountFailedBatch() {
+        hec.respondWith(503);
+        appender.setBatchSize(5);
+        appender.setLingerMs(10);
+        appender.start();
+
+        for (int i = 0; i < 5; i++) {
+            appender.doAppend(event("failing " + i));
+        }
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (appender.getFailedBatches() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.onSpinWait();
+        }
+        assertThat(appender.getFailedEvents()).isEqualTo(5);
+    }
+
+    @Test
+    void givenHecOutage_whenHecRecovers_thenSpooledBatchesReplayInOrder() {
+        hec.respondWith(503);
+        appender.setBatchSize(50);
+        appender.setLingerMs(60_000);
+        appender.setQueueSize(100_000);
+        appender.setSpoolDirectory(spoolDirectory.toString());
+        appender.setRetryIntervalMs(50);
+        appender.start();
+
+        int events = 20_000;
+        for (int i = 0; i < events; i++) {
+            appender.doAppend(event("outage " + i));
+        }
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (appender.getSpooledBatches() < events / 50 && System.currentTimeMillis() < deadline) {
+            Thread.onSpinWait();
+        }
+        assertThat(appender.getSpooledBatches()).isEqualTo(events / 50);
+
+        hec.respondWith(200);
+        assertThat(hec.awaitEvents(events, 30_000)).isTrue();
+
+        for (int i = 0; i < events; i++) {
+            assertThat(hec.events().get(i)).contains("\"message\":\"outage " + i + "\"");
+        }
+        assertThat(appender.getReplayedBatches()).isEqualTo(events / 50);
+        assertThat(appender.getFailedEvents()).isZero();
+    }
+
+    @Test
+    void givenPermanentHecRejection_whenFlush_thenDropBatchInsteadOfSpooling() {
+        hec.respondWith(403);
+        appender.setBatchSize(5);
+        appender.setLingerMs(10);
+        appender.setSpoolDirectory(spoolDirectory.toString());
+        appender.start();
+
+        for (int i = 0; i < 5; i++) {
+            appender.doAppend(event("bad token " + i));
+        }
+        long deadline = System.currentTimeMillis() + 5000;
+        while (appender.getFailedBatches() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.onSpinWait();
+        }
+        hec.respondWith(200);
+        for (int i = 0; i < 5; i++) {
+            appender.doAppend(event("good token " + i));
+        }
+
+        assertThat(hec.awaitEvents(5, 5000)).isTrue();
+        assertThat(hec.events()).allMatch(line -> line.contains("good token"));
+        assertThat(appender.getFailedEvents()).isEqualTo(5);
+        assertThat(appender.getSpooledBatches()).isZero();
+    }
+
+    @Test
+    void givenRejectedSpooledBatch_whenHecRecovers_thenReplayCommitsPastIt() {
+        hec.respondWith(503);
+        appender.setBatchSize(10);
+        appender.setLingerMs(60_000);
+        appender.setSpoolDirectory(spoolDirectory.toString());
+        appender.setRetryIntervalMs(50);
+        appender.start();
+
+        for (int i = 0; i < 30; i++) {
+            appender.doAppend(event(i < 10 ? "poison " + i : "outage " + i));
+        }
+        long deadline = System.currentTimeMillis() + 5000;
+        while (appender.getSpooledBatches() < 3 && System.currentTimeMillis() < deadline) {
+            Thread.onSpinWait();
+        }
+        hec.rejectContaining("poison");
+        hec.respondWith(200);
+
+        assertThat(hec.awaitEvents(20, 5000)).isTrue();
+        //the stub records the events before the appender sees the response
+        deadline = System.currentTimeMillis() + 5000;
+        while (appender.getReplayedBatches() < 2 && System.currentTimeMillis() < deadline) {
+            Thread.onSpinWait();
+        }
+        for (int i = 0; i < 20; i++) {
+            assertThat(hec.events().get(i)).contains("\"message\":\"outage " + (i + 10) + "\"");
+        }
+        assertThat(appender.getReplayedBatches()).isEqualTo(2);
+        assertThat(appender.getFailedBatches()).isEqualTo(1);
+        assertThat(appender.getFailedEvents()).isEqualTo(10);
+    }
+
+    private ILoggingEvent event(String message) {
+        return new LoggingEvent(AsyncHecAppenderTests.class.getName(),
+                loggerContext.getLogger("com.chuman.test"), Level.INFO, message, null, null);
+    }
+}
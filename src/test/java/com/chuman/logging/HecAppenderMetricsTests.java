@@ -0,0 +1,71 @@
+package com.chuman.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HecAppenderMetricsTests {
+
+    private final LoggerContext loggerContext = new LoggerContext();
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private StubHecServer hec;
+
+    private AsyncHecAppender appender;
+
+    @BeforeEach
+    public void setup() throws Exception {
+        hec = new StubHecServer();
+        appender = new AsyncHecAppender();
+        appender.setContext(loggerContext);
+        appender.setName("splunk");
+        appender.setUrl(hec.url());
+        appender.setToken("test-token");
+        appender.setBatchSize(5);
+        appender.setLingerMs(10);
+        appender.start();
+        //attached twice, bound once. not additive, so every event is appended once
+        loggerContext.getLogger(Logger.ROOT_LOGGER_NAME).addAppender(appender);
+        Logger chuman = loggerContext.getLogger("com.chuman");
+        chuman.addAppender(appender);
+        chuman.setAdditive(false);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        appender.stop();
+        hec.close();
+    }
+
+    @Test
+    void givenAppenderOnLoggerContext_whenBind_thenPublishEventCounters() {
+        //given
+        new HecAppenderMetrics(loggerContext).bindTo(registry);
+        Logger logger = loggerContext.getLogger("com.chuman.test");
+        logger.setLevel(Level.INFO);
+        //when
+        for (int i = 0; i < 10; i++) {
+            logger.info("employee {}", i);
+        }
+        //then
+        assertThat(hec.awaitEvents(10, 5000)).isTrue();
+        long deadline = System.currentTimeMillis() + 5000;
+        while (appender.getSentEvents() < 10 && System.currentTimeMillis() < deadline) {
+            Thread.onSpinWait();
+        }
+        assertThat(registry.get("hec.events").tags("appender", "splunk", "outcome", "enqueued").functionCounter().count())
+                .isEqualTo(10);
+        assertThat(registry.get("hec.events").tags("outcome", "sent").functionCounter().count()).isEqualTo(10);
+        assertThat(registry.get("hec.events").tags("outcome", "dropped").functionCounter().count()).isZero();
+        assertThat(registry.get("hec.batches").tags("outcome", "sent").functionCounter().count()).isEqualTo(2);
+        assertThat(registry.get("hec.queue.depth").gauge().value()).isZero();
+        assertThat(registry.find("hec.events").functionCounters()).hasSize(4);
+    }
+}
@@ -0,0 +1,118 @@
+package com.chuman.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+//spool and replay speed of AsyncHecAppender against the local stub HEC, run with mvn -Pload-test test or in the ci
+//profile's verify. an outage spools every batch to disk, then HEC recovers and the spool drains in order.
+//the numbers are written to target/hec-load-results.properties, events per second from first append to last spooled
+//batch and from recovery to last replayed batch.
+@Tag("load")
+class HecSpoolLoadTests {
+
+    private static final Path RESULTS = Paths.get("target", "hec-load-results.properties");
+
+    private static final int EVENTS = Integer.getInteger("hec.load.events", 100_000);
+
+    private static final int BATCH_SIZE = 100;
+
+    private final LoggerContext loggerContext = new LoggerContext();
+
+    private StubHecServer hec;
+
+    private AsyncHecAppender appender;
+
+    @TempDir
+    Path spoolDirectory;
+
+    @BeforeEach
+    public void setup() throws Exception {
+        hec = new StubHecServer();
+        appender = new AsyncHecAppender();
+        appender.setContext(loggerContext);
+        appender.setName("load");
+        appender.setUrl(hec.url());
+        appender.setToken("test-token");
+        appender.setIndex("main");
+        appender.setBatchSize(BATCH_SIZE);
+        appender.setLingerMs(60_000);
+        appender.setQueueSize(EVENTS);
+        appender.setSpoolDirectory(spoolDirectory.toString());
+        appender.setSpoolSegmentBytes(64 * 1024 * 1024);
+        appender.setRetryIntervalMs(10);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        appender.stop();
+        hec.close();
+    }
+
+    @Test
+    void givenHecOutage_whenHecRecovers_thenRecordSpoolAndReplayThroughput() throws Exception {
+        //given or setup
+        hec.respondWith(503);
+        appender.start();
+        //when action
+        long spoolStart = System.nanoTime();
+        for (int i = 0; i < EVENTS; i++) {
+            appender.doAppend(event("outage " + i));
+        }
+        assertThat(await(() -> appender.getSpooledBatches() >= EVENTS / BATCH_SIZE, 60_000)).isTrue();
+        long spoolNanos = System.nanoTime() - spoolStart;
+
+        long replayStart = System.nanoTime();
+        hec.respondWith(200);
+        assertThat(await(() -> appender.getReplayedBatches() >= EVENTS / BATCH_SIZE, 120_000)).isTrue();
+        long replayNanos = System.nanoTime() - replayStart;
+        //then
+        Properties measured = new Properties();
+        measured.setProperty("spool.events-per-second", perSecond(EVENTS, spoolNanos));
+        measured.setProperty("replay.events-per-second", perSecond(EVENTS, replayNanos));
+        Files.createDirectories(RESULTS.getParent());
+        try (OutputStream out = Files.newOutputStream(RESULTS)) {
+            measured.store(out, "HecSpoolLoadTests events=" + EVENTS + " batch-size=" + BATCH_SIZE);
+        }
+        assertThat(hec.events()).hasSize(EVENTS);
+        assertThat(hec.events().get(EVENTS - 1)).contains("\"message\":\"outage " + (EVENTS - 1) + "\"");
+        assertThat(appender.getDroppedEvents()).isZero();
+        assertThat(appender.getFailedEvents()).isZero();
+    }
+
+    private static String perSecond(int events, long nanos) {
+        return String.format(Locale.ROOT, "%.0f", events * 1e9 / nanos);
+    }
+
+    private static boolean await(BooleanSupplier condition, long timeoutMs) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                return false;
+            }
+            Thread.sleep(1);
+        }
+        return true;
+    }
+
+    private ILoggingEvent event(String message) {
+        return new LoggingEvent(HecSpoolLoadTests.class.getName(),
+                loggerContext.getLogger("com.chuman.test"), Level.INFO, message, null, null);
+    }
+}
@@ -0,0 +1,119 @@
+package com.chuman.logging;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HecSpoolTests {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void givenSpooledBatches_whenReplay_thenReturnedInOrder() throws Exception {
+        try (HecSpool spool = new HecSpool(directory, 1024, 4)) {
+            spool.append(bytes("one"));
+            spool.append(bytes("two"));
+
+            assertThat(text(spool.peek())).isEqualTo("one");
+            spool.commit();
+            assertThat(text(spool.peek())).isEqualTo("two");
+            spool.commit();
+            assertThat(spool.peek()).isNull();
+            assertThat(spool.isEmpty()).isTrue();
+        }
+    }
+
+    @Test
+    void givenFullSegment_whenAppend_thenRotateAndKeepOrder() throws Exception {
+        try (HecSpool spool = new HecSpool(directory, 64, 8)) {
+            for (int i = 0; i < 10; i++) {
+                spool.append(bytes("batch-" + i));
+            }
+            assertThat(spool.segmentCount()).isGreaterThan(1);
+
+            for (int i = 0; i < 10; i++) {
+                assertThat(text(spool.peek())).isEqualTo("batch-" + i);
+                spool.commit();
+            }
+            assertThat(spool.isEmpty()).isTrue();
+            assertThat(spool.segmentCount()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    void givenDiskBudgetExceeded_whenAppend_thenOldestSegmentsAreDropped() throws Exception {
+        try (HecSpool spool = new HecSpool(directory, 64, 2)) {
+            for (int i = 0; i < 20; i++) {
+                spool.append(bytes("batch-" + i));
+            }
+            try (Stream<Path> files = Files.list(directory)) {
+                assertThat(files.filter(path -> path.toString().endsWith(".spool")).count()).isLessThanOrEqualTo(2);
+            }
+            assertThat(spool.getDroppedBatches()).isPositive();
+            assertThat(text(spool.peek())).isNotEqualTo("batch-0");
+        }
+    }
+
+    @Test
+    void givenReopenedSpool_whenPeek_thenResumeAfterCommittedOffset() throws Exception {
+        try (HecSpool spool = new HecSpool(directory, 64, 8)) {
+            for (int i = 0; i < 6; i++) {
+                spool.append(bytes("batch-" + i));
+            }
+            for (int i = 0; i < 4; i++) {
+                spool.peek();
+                spool.commit();
+            }
+        }
+
+        try (HecSpool reopened = new HecSpool(directory, 64, 8)) {
+            assertThat(text(reopened.peek())).isEqualTo("batch-4");
+            reopened.commit();
+            reopened.append(bytes("batch-6"));
+            assertThat(text(reopened.peek())).isEqualTo("batch-5");
+            reopened.commit();
+            assertThat(text(reopened.peek())).isEqualTo("batch-6");
+        }
+    }
+
+    @Test
+    void givenTornRecord_whenReopen_thenRecordIsIgnoredAndOverwritten() throws Exception {
+        try (HecSpool spool = new HecSpool(directory, 1024, 4)) {
+            spool.append(bytes("complete"));
+            spool.append(bytes("torn"));
+        }
+        Path segment;
+        try (Stream<Path> files = Files.list(directory)) {
+            segment = files.filter(path -> path.toString().endsWith(".spool")).findFirst().get();
+        }
+        //corrupt the payload of the second record as a crash mid write would
+        try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+            file.seek(8 + "complete".length() + 8);
+            file.write('X');
+        }
+
+        try (HecSpool reopened = new HecSpool(directory, 1024, 4)) {
+            assertThat(text(reopened.peek())).isEqualTo("complete");
+            reopened.commit();
+            assertThat(reopened.peek()).isNull();
+            reopened.append(bytes("after crash"));
+            assertThat(text(reopened.peek())).isEqualTo("after crash");
+        }
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String text(byte[] value) {
+        return value == null ? null : new String(value, StandardCharsets.UTF_8);
+    }
+}
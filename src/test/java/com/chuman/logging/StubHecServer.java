@@ -0,0 +1,123 @@
+package com.chuman.logging;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+
+//local stand in for the splunk HEC endpoint, records every event line it accepts
+class StubHecServer implements AutoCloseable {
+
+    static {
+        //the jdk server writes response headers and body separately, with nagle on every request then waits out the
+        //client's delayed ack, about 40ms, and the stub instead of the appender would set the pace of a load test.
+        //read once when the first server starts
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+    }
+
+    private final HttpServer server;
+
+    private final List<String> events = new CopyOnWriteArrayList<>();
+
+    private final List<String> authorizations = new CopyOnWriteArrayList<>();
+
+    private final AtomicInteger requests = new AtomicInteger();
+
+    private final AtomicInteger status = new AtomicInteger(200);
+
+    private final AtomicLong delayMs = new AtomicLong();
+
+    private volatile String rejectMarker;
+
+    StubHecServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/services/collector/event", this::handle);
+        server.start();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        requests.incrementAndGet();
+        authorizations.add(exchange.getRequestHeaders().getFirst("Authorization"));
+        sleep(delayMs.get());
+        InputStream body = exchange.getRequestBody();
+        if ("gzip".equals(exchange.getRequestHeaders().getFirst("Content-Encoding"))) {
+            body = new GZIPInputStream(body);
+        }
+        String payload = new String(body.readAllBytes(), StandardCharsets.UTF_8);
+        int code = status.get();
+        String marker = rejectMarker;
+        if (code == 200 && marker != null && payload.contains(marker)) {
+            code = 400;
+        }
+        if (code == 200) {
+            for (String line : payload.split("\n")) {
+                if (!line.isBlank()) {
+                    events.add(line);
+                }
+            }
+        }
+        byte[] response = "{\"text\":\"Success\",\"code\":0}".getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(code, response.length);
+        exchange.getResponseBody().write(response);
+        exchange.close();
+    }
+
+    String url() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    List<String> events() {
+        return events;
+    }
+
+    List<String> authorizations() {
+        return authorizations;
+    }
+
+    int requests() {
+        return requests.get();
+    }
+
+    void respondWith(int code) {
+        status.set(code);
+    }
+
+    //answers 400 for any batch with an event containing the marker, the way HEC refuses a malformed batch
+    void rejectContaining(String marker) {
+        rejectMarker = marker;
+    }
+
+    void delay(long millis) {
+        delayMs.set(millis);
+    }
+
+    boolean awaitEvents(int count, long timeoutMs) {
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        while (events.size() < count && System.currentTimeMillis() < deadline) {
+            sleep(10);
+        }
+        return events.size() >= count;
+    }
+
+    private static void sleep(long millis) {
+        try {
+            TimeUnit.MILLISECONDS.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}
@@ -1,6 +1,6 @@
 package com.chuman.repository;
 
-import com.chuman.model.Employee;
+import com.chuman.model.EmployeeDTO;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -28,13 +28,13 @@ import static org.assertj.core.api.Assertions.assertThat;
      void givenEmployeeObject_whenSave_thenReturnSavedEmployee(){
         //given or setup
         
-        Employee employee = Employee.builder().firstName("chuman")
+        EmployeeDTO employee = EmployeeDTO.builder().firstName("chuman")
                             .lastName("panda")
                             .email("chuman.panda@gmail.com")
                             .build();
 
         //when action
-        Employee savedEmployee = employeeRepository.save(employee);
+        EmployeeDTO savedEmployee = employeeRepository.save(employee);
 
         //then verify the output
         assertThat(savedEmployee).isNotNull();
@@ -44,11 +44,11 @@ import static org.assertj.core.api.Assertions.assertThat;
     @Test
      void givenEmployeeList_whenFindAll_thenEmployeeList(){
         //given or setup
-        Employee employee = Employee.builder().firstName("chuman")
+        EmployeeDTO employee = EmployeeDTO.builder().firstName("chuman")
                 .lastName("panda")
                 .email("chuman.panda@gmail.com")
                 .build();
-        Employee employee1 = Employee.builder().firstName("kalia")
+        EmployeeDTO employee1 = EmployeeDTO.builder().firstName("kalia")
                 .lastName("panda")
                 .email("kalia.panda@gmail.com")
                 .build();
@@ -57,7 +57,7 @@ import static org.assertj.core.api.Assertions.assertThat;
         employeeRepository.save(employee1);
 
         //when action
-        List<Employee> employeeList = employeeRepository.findAll();
+        List<EmployeeDTO> employeeList = employeeRepository.findAll();
 
         //then verify the output
         assertThat(employeeList).isNotNull();
@@ -67,14 +67,14 @@ import static org.assertj.core.api.Assertions.assertThat;
     @Test
      void givenEmployeeObject_whenFindById_thenReturnEmployeeObject(){
         //given or setup
-        Employee employee = Employee.builder().firstName("chuman")
+        EmployeeDTO employee = EmployeeDTO.builder().firstName("chuman")
                 .lastName("panda")
                 .email("chuman.panda@gmail.com")
                 .build();
         employeeRepository.save(employee);
 
         //when action
-        Employee employeeData = employeeRepository.findById(employee.getId()).get();
+        EmployeeDTO employeeData = employeeRepository.findById(employee.getId()).get();
 
         //then verify the output
         assertThat(employeeData).isNotNull();
@@ -83,14 +83,14 @@ import static org.assertj.core.api.Assertions.assertThat;
     @Test
      void givenEmployeeEmail_whenFindByEmail_thenReturnEmployeeObject(){
         //given or setup
-        Employee employee = Employee.builder().firstName("chuman")
+        EmployeeDTO employee = EmployeeDTO.builder().firstName("chuman")
                 .lastName("panda")
                 .email("chuman.panda@gmail.com")
                 .build();
         employeeRepository.save(employee);
 
         //when action
-        Employee employeeData = employeeRepository.findByEmail(employee.getEmail()).get();
+        EmployeeDTO employeeData = employeeRepository.findByEmail(employee.getEmail()).get();
         //then verify the output
         assertThat(employeeData).isNotNull();
     }
@@ -98,16 +98,16 @@ import static org.assertj.core.api.Assertions.assertThat;
     @Test
      void givenEmployeeObject_whenUpdateEmployee_thenReturnUpdateEmployee(){
         //given or setup
-        Employee employee = Employee.builder().firstName("chuman")
+        EmployeeDTO employee = EmployeeDTO.builder().firstName("chuman")
                 .lastName("panda")
                 .email("chuman.panda@gmail.com")
                 .build();
         employeeRepository.save(employee);
         //when action
-        Employee employeeData = employeeRepository.findById(employee.getId()).get();
+        EmployeeDTO employeeData = employeeRepository.findById(employee.getId()).get();
         employeeData.setEmail("kumar@gmail.com");
         employeeData.setFirstName("kalia");
-        Employee updateEmployee = employeeRepository.save(employeeData);
+        EmployeeDTO updateEmployee = employeeRepository.save(employeeData);
         //then verify the output
         assertThat(updateEmployee.getEmail()).isEqualTo("kumar@gmail.com");
         assertThat(updateEmployee.getFirstName()).isEqualTo("kalia");
@@ -117,7 +117,7 @@ import static org.assertj.core.api.Assertions.assertThat;
     @Test
      void givenEmployeeObject_whenDeleteEmployee_thenRemoveEmployee(){
         //given or setup
-        Employee employee = Employee.builder().firstName("chuman")
+        EmployeeDTO employee = EmployeeDTO.builder().firstName("chuman")
                 .lastName("panda")
                 .email("chuman.panda@gmail.com")
                 .build();
@@ -125,7 +125,7 @@ import static org.assertj.core.api.Assertions.assertThat;
         //when action
         employeeRepository.delete(employee);
 
-        Optional<Employee> optionalEmployee = employeeRepository.findById(employee.getId());
+        Optional<EmployeeDTO> optionalEmployee = employeeRepository.findById(employee.getId());
         //then verify the output
         assertThat(optionalEmployee).isEmpty();
     }
@@ -134,13 +134,13 @@ import static org.assertj.core.api.Assertions.assertThat;
     @Test
      void givenFirstNameAndLastName_whenFindByQuery_thenReturnEmployeeObject(){
         //given or setup
-        Employee employee = Employee.builder().firstName("chuman")
+        EmployeeDTO employee = EmployeeDTO.builder().firstName("chuman")
                 .lastName("panda")
                 .email("chuman.panda@gmail.com")
                 .build();
         employeeRepository.save(employee);
         //when action
-        Employee employeeData = employeeRepository.findByCustomQuery(employee.getFirstName(),employee.getLastName());
+        EmployeeDTO employeeData = employeeRepository.findByCustomQuery(employee.getFirstName(),employee.getLastName());
         //then verify the output
         assertThat(employeeData).isNotNull();
     }
@@ -148,13 +148,13 @@ import static org.assertj.core.api.Assertions.assertThat;
     @Test
      void givenFirstNameAndLastName_whenFindByNamedParams_thenReturnEmployeeObject(){
         //given or setup
-        Employee employee = Employee.builder().firstName("chuman")
+        EmployeeDTO employee = EmployeeDTO.builder().firstName("chuman")
                 .lastName("panda")
                 .email("chuman.panda@gmail.com")
                 .build();
         employeeRepository.save(employee);
         //when action
-        Employee employeeData = employeeRepository.findByCustomQueryNamedParams(employee.getFirstName(),employee.getLastName());
+        EmployeeDTO employeeData = employeeRepository.findByCustomQueryNamedParams(employee.getFirstName(),employee.getLastName());
         //then verify the output
         assertThat(employeeData).isNotNull();
     }
@@ -162,13 +162,13 @@ import static org.assertj.core.api.Assertions.assertThat;
     @Test
     void givenFirstNameAndLastName_whenFindByNativeSql_thenReturnEmployeeObject(){
         //given or setup
-        Employee employee = Employee.builder().firstName("chuman")
+        EmployeeDTO employee = EmployeeDTO.builder().firstName("chuman")
                 .lastName("panda")
                 .email("chuman.panda@gmail.com")
                 .build();
         employeeRepository.save(employee);
         //when action
-        Employee employeeData = employeeRepository.findByCustomNativeSql(employee.getFirstName(),employee.getLastName());
+        EmployeeDTO employeeData = employeeRepository.findByCustomNativeSql(employee.getFirstName(),employee.getLastName());
         //then verify the output
         assertThat(employeeData).isNotNull();
     }
@@ -176,13 +176,13 @@ import static org.assertj.core.api.Assertions.assertThat;
     @Test
      void givenFirstNameAndLastName_whenFindByNativeSqlNamedParams_thenReturnEmployeeObject(){
         //given or setup
-        Employee employee = Employee.builder().firstName("chuman")
+        EmployeeDTO employee = EmployeeDTO.builder().firstName("chuman")
                 .lastName("panda")
                 .email("chuman.panda@gmail.com")
                 .build();
         employeeRepository.save(employee);
         //when action
-        Employee employeeData = employeeRepository.findByCustomNativeSqlNamedParams(employee.getFirstName(),employee.getLastName());
+        EmployeeDTO employeeData = employeeRepository.findByCustomNativeSqlNamedParams(employee.getFirstName(),employee.getLastName());
         //then verify the output
         assertThat(employeeData).isNotNull();
     }
@@ -0,0 +1,169 @@
+package com.chuman.service;
+
+import com.chuman.config.CacheConfig;
+import com.chuman.model.EmployeeDTO;
+import com.chuman.model.EmployeeSummary;
+import com.chuman.repository.EmployeeRepository;
+import com.chuman.repository.EmployeeTombstoneRepository;
+import com.chuman.service.impl.EmailIndex;
+import com.chuman.service.impl.EmployeeBatchWriter;
+import com.chuman.service.impl.EmployeeChangeFeed;
+import com.chuman.service.impl.EmployeeQueryCache;
+import com.chuman.service.impl.EmployeeSearchIndex;
+import com.chuman.service.impl.EmployeeServiceImpl;
+import com.chuman.service.impl.EmployeeTombstones;
+import com.github.benmanes.caffeine.cache.Cache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@SpringJUnitConfig(EmployeeServiceCacheTests.CacheTestConfig.class)
+class EmployeeServiceCacheTests {
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    //stands in for the employees table
+    private final Map<Long, EmployeeDTO> table = new ConcurrentHashMap<>();
+
+    @BeforeEach
+    public void setup(){
+        Mockito.reset(employeeRepository);
+        cacheManager.getCache(CacheConfig.EMPLOYEE_CACHE).clear();
+        table.clear();
+        table.put(1L, EmployeeDTO.builder().id(1L)
+                .firstName("chuman")
+                .lastName("panda")
+                .email("chuman.panda@gmail.com")
+                .build());
+        given(employeeRepository.findSummaryById(ArgumentMatchers.anyLong()))
+                .willAnswer(invocation -> Optional.ofNullable(table.get(invocation.<Long>getArgument(0))).map(EmployeeSummary::of));
+        given(employeeRepository.save(ArgumentMatchers.any(EmployeeDTO.class))).willAnswer(invocation -> {
+            EmployeeDTO employee = invocation.getArgument(0);
+            table.put(employee.getId(), copy(employee));
+            return employee;
+        });
+        willAnswer(invocation -> table.remove(invocation.<Long>getArgument(0)))
+                .given(employeeRepository).deleteById(ArgumentMatchers.anyLong());
+    }
+
+    @Test
+    void givenCachedEmployee_whenGetEmployeeSummaryAgain_thenRepositoryIsNotHit(){
+        //when action
+        employeeService.getEmployeeSummary(1L);
+        Optional<EmployeeSummary> employee = employeeService.getEmployeeSummary(1L);
+        //then
+        assertThat(employee).isPresent();
+        verify(employeeRepository, times(1)).findSummaryById(1L);
+        assertThat(nativeCache().stats().hitCount()).isEqualTo(1);
+        assertThat(nativeCache().stats().missCount()).isEqualTo(1);
+    }
+
+    @Test
+    void givenCachedEmployee_whenUpdateEmployee_thenNextReadSeesUpdate(){
+        //given or setup
+        employeeService.getEmployeeSummary(1L);
+        EmployeeDTO update = EmployeeDTO.builder().id(1L)
+                .firstName("kalia")
+                .lastName("kumar")
+                .email("kalia.kumar@gmail.com")
+                .build();
+        //when action
+        employeeService.updateEmployee(update);
+        EmployeeSummary employee = employeeService.getEmployeeSummary(1L).get();
+        //then
+        assertThat(employee.getFirstName()).isEqualTo("kalia");
+        assertThat(employee.getEmail()).isEqualTo("kalia.kumar@gmail.com");
+        verify(employeeRepository, times(2)).findSummaryById(1L);
+    }
+
+    @Test
+    void givenCachedEmployee_whenDeleteEmployee_thenNextReadIsEmpty(){
+        //given or setup
+        employeeService.getEmployeeSummary(1L);
+        //when action
+        employeeService.deleteEmployee(1L);
+        //then
+        assertThat(employeeService.getEmployeeSummary(1L)).isEmpty();
+    }
+
+    @Test
+    void givenMissingEmployee_whenGetEmployeeSummary_thenEmptyResultIsNotCached(){
+        //when action
+        employeeService.getEmployeeSummary(2L);
+        table.put(2L, EmployeeDTO.builder().id(2L)
+                .firstName("kalia")
+                .lastName("kumar")
+                .email("kalia.kumar@gmail.com")
+                .build());
+        //then
+        assertThat(employeeService.getEmployeeSummary(2L)).isPresent();
+    }
+
+    @SuppressWarnings("unchecked")
+    private Cache<Object, Object> nativeCache(){
+        return (Cache<Object, Object>) cacheManager.getCache(CacheConfig.EMPLOYEE_CACHE).getNativeCache();
+    }
+
+    private static EmployeeDTO copy(EmployeeDTO employee){
+        if (employee == null) {
+            return null;
+        }
+        return EmployeeDTO.builder().id(employee.getId())
+                .firstName(employee.getFirstName())
+                .lastName(employee.getLastName())
+                .email(employee.getEmail())
+                .build();
+    }
+
+    @Configuration
+    @EnableCaching
+    static class CacheTestConfig {
+
+        @Bean
+        EmployeeRepository employeeRepository(){
+            return Mockito.mock(EmployeeRepository.class);
+        }
+
+        @Bean
+        CacheManager cacheManager(){
+            CaffeineCacheManager cacheManager = new CaffeineCacheManager(CacheConfig.EMPLOYEE_CACHE);
+            cacheManager.setCacheSpecification("maximumSize=100,expireAfterWrite=1m,recordStats");
+            return cacheManager;
+        }
+
+        @Bean
+        EmployeeService employeeService(EmployeeRepository employeeRepository){
+            return new EmployeeServiceImpl(employeeRepository, Mockito.mock(EmployeeBatchWriter.class),
+                    new EmailIndex(employeeRepository, false, 1, 0.01), new EmployeeSearchIndex(employeeRepository, false),
+                    Mockito.mock(EmployeeQueryCache.class), new EmployeeChangeFeed(100),
+                    new EmployeeTombstones(Mockito.mock(EmployeeTombstoneRepository.class), Duration.ofDays(30),
+                            Duration.ofSeconds(5), Duration.ofHours(1)));
+        }
+    }
+}
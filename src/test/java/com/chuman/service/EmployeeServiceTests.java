@@ -1,9 +1,26 @@
 package com.chuman.service;
 
 import com.chuman.exception.ResourceNotFoundException;
+import com.chuman.model.BulkEmployeeResult;
+import com.chuman.model.EmployeeChange;
+import com.chuman.model.EmployeeCollectionVersion;
 import com.chuman.model.EmployeeDTO;
+import com.chuman.model.EmployeeDelta;
+import com.chuman.model.EmployeePage;
+import com.chuman.model.EmployeeRevision;
+import com.chuman.model.EmployeeSearchPage;
+import com.chuman.model.EmployeeSummary;
+import com.chuman.model.EmployeeTombstone;
+import com.chuman.model.EmployeeWatermark;
 import com.chuman.repository.EmployeeRepository;
+import com.chuman.repository.EmployeeTombstoneRepository;
+import com.chuman.service.impl.EmailIndex;
+import com.chuman.service.impl.EmployeeBatchWriter;
+import com.chuman.service.impl.EmployeeChangeFeed;
+import com.chuman.service.impl.EmployeeQueryCache;
+import com.chuman.service.impl.EmployeeSearchIndex;
 import com.chuman.service.impl.EmployeeServiceImpl;
+import com.chuman.service.impl.EmployeeTombstones;
 
 
 import org.junit.jupiter.api.BeforeEach;
@@ -11,15 +28,24 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.BDDMockito.given;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.BDDMockito.willDoNothing;
@@ -30,15 +56,40 @@ import static org.mockito.Mockito.*;
     @Mock
     private EmployeeRepository employeeRepository;
 
+    @Mock
+    private EmployeeBatchWriter employeeBatchWriter;
+
     @InjectMocks
     private EmployeeServiceImpl employeeService;
 
+    private EmailIndex emailIndex;
+
+    private EmployeeSearchIndex searchIndex;
+
+    private EmployeeQueryCache queryCache;
+
+    private EmployeeChangeFeed changeFeed;
+
+    private EmployeeTombstoneRepository tombstoneRepository;
+
     private EmployeeDTO employee;
 
     @BeforeEach
     public void setup(){
 employeeRepository = Mockito.mock(EmployeeRepository.class);
-        employeeService = new EmployeeServiceImpl(employeeRepository);
+        employeeBatchWriter = Mockito.mock(EmployeeBatchWriter.class);
+        //a cold index answers maybe for every email so the exact query always runs
+        emailIndex = new EmailIndex(employeeRepository, true, 1000, 0.01);
+        //cold as well, searches go to the database until it is warmed
+        searchIndex = new EmployeeSearchIndex(employeeRepository, true);
+        queryCache = Mockito.mock(EmployeeQueryCache.class);
+        changeFeed = new EmployeeChangeFeed(100);
+        tombstoneRepository = Mockito.mock(EmployeeTombstoneRepository.class);
+        //no commit lag, the sync horizon is now
+        EmployeeTombstones tombstones = new EmployeeTombstones(tombstoneRepository, Duration.ofDays(30), Duration.ZERO,
+                Duration.ofHours(1));
+        employeeService = new EmployeeServiceImpl(employeeRepository, employeeBatchWriter, emailIndex, searchIndex, queryCache,
+                changeFeed, tombstones);
 
          employee = EmployeeDTO.builder().id(1L)
                 .firstName("chuman")
@@ -70,6 +121,224 @@ employeeRepository = Mockito.mock(EmployeeRepository.class);
         verify(employeeRepository, never()).save(any(EmployeeDTO.class));
     }
 
+    //svae employee method with a warmed index that has never seen the email
+    @Test
+     void givenNewEmailInWarmIndex_whenSave_thenSkipFindByEmail(){
+        //given or setup
+        given(employeeRepository.streamAllEmails()).willReturn(Stream.of("kalia.kumar@gmail.com"));
+        emailIndex.warm();
+        given(employeeRepository.save(employee)).willReturn(employee);
+        //when action
+        EmployeeDTO savedEmployee = employeeService.saveEmployee(employee);
+        //then
+        assertThat(savedEmployee).isNotNull();
+        verify(employeeRepository, never()).findByEmail(any());
+        assertThat(emailIndex.mightContain(employee.getEmail())).isTrue();
+    }
+
+    //svae employee method where the index says maybe but the email is free
+    @Test
+     void givenIndexedEmail_whenSave_thenFallBackToFindByEmail(){
+        //given or setup
+        given(employeeRepository.streamAllEmails()).willReturn(Stream.of(employee.getEmail()));
+        emailIndex.warm();
+        given(employeeRepository.findByEmail(employee.getEmail())).willReturn(Optional.empty());
+        given(employeeRepository.save(employee)).willReturn(employee);
+        //when action
+        EmployeeDTO savedEmployee = employeeService.saveEmployee(employee);
+        //then
+        assertThat(savedEmployee).isNotNull();
+        verify(employeeRepository, times(1)).findByEmail(employee.getEmail());
+    }
+
+    //svae employee method when the unique constraint catches a duplicate the index missed
+    @Test
+     void givenConstraintViolation_whenSave_thenThrowsException(){
+        //given or setup
+        given(employeeRepository.streamAllEmails()).willReturn(Stream.empty());
+        emailIndex.warm();
+        given(employeeRepository.save(employee))
+                .willThrow(new org.springframework.dao.DataIntegrityViolationException("duplicate key"));
+        given(employeeRepository.findByEmail(employee.getEmail())).willReturn(Optional.of(employee));
+        //when action
+        org.junit.jupiter.api.Assertions.assertThrows(ResourceNotFoundException.class, ()->{employeeService.saveEmployee(employee);});
+    }
+
+    //bulk save method
+    @Test
+     void givenEmployeeList_whenSaveEmployees_thenReturnPerItemResults(){
+        //given or setup
+        EmployeeDTO newEmployee = EmployeeDTO.builder()
+                .firstName("Kalia")
+                .lastName("kumar")
+                .email("kalia.kumar@gmail.com")
+                .build();
+        EmployeeDTO repeated = EmployeeDTO.builder()
+                .firstName("Kalia")
+                .lastName("kumar")
+                .email("KALIA.kumar@gmail.com")
+                .build();
+        EmployeeDTO noEmail = EmployeeDTO.builder()
+                .firstName("no")
+                .lastName("email")
+                .build();
+        given(employeeRepository.findExistingEmails(any()))
+                .willReturn(List.of(employee.getEmail()));
+        given(employeeBatchWriter.insertChunk(List.of(newEmployee))).willAnswer(invocation -> {
+            newEmployee.setId(7L);
+            return List.of(newEmployee);
+        });
+        //when action
+        List<BulkEmployeeResult> results = employeeService.saveEmployees(List.of(employee, newEmployee, repeated, noEmail));
+        //then
+        assertThat(results).extracting(BulkEmployeeResult::getStatus).containsExactly(
+                BulkEmployeeResult.Status.DUPLICATE,
+                BulkEmployeeResult.Status.CREATED,
+                BulkEmployeeResult.Status.DUPLICATE,
+                BulkEmployeeResult.Status.INVALID);
+        assertThat(results.get(1).getId()).isEqualTo(7L);
+        verify(employeeRepository, times(1)).findExistingEmails(any());
+        verify(employeeRepository, never()).findByEmail(any());
+    }
+
+    //bulk save method with a failing chunk
+    @Test
+     void givenFailingChunk_whenSaveEmployees_thenReportFailedItems(){
+        //given or setup
+        given(employeeRepository.findExistingEmails(any())).willReturn(Collections.emptyList());
+        given(employeeBatchWriter.insertChunk(any()))
+                .willThrow(new org.springframework.dao.DataIntegrityViolationException("duplicate key"));
+        //when action
+        List<BulkEmployeeResult> results = employeeService.saveEmployees(List.of(employee));
+        //then
+        assertThat(results).extracting(BulkEmployeeResult::getStatus)
+                .containsExactly(BulkEmployeeResult.Status.FAILED);
+    }
+
+    //unconditional replace writes over the locked row
+    @Test
+     void givenEmployee_whenReplaceEmployee_thenWriteOverLockedRow(){
+        //given or setup
+        EmployeeDTO replacement = EmployeeDTO.builder()
+                .firstName("kalia")
+                .lastName("kumar")
+                .email("kalia.kumar@gmail.com")
+                .build();
+        given(employeeRepository.findForUpdateById(1L)).willReturn(Optional.of(employee));
+        given(employeeRepository.saveAndFlush(employee)).willAnswer(invocation -> {
+            employee.setVersion(employee.getVersion() + 1);
+            return employee;
+        });
+        //when action
+        EmployeeDTO replaced = employeeService.replaceEmployee(1L, replacement, null).get();
+        //then
+        assertThat(replaced.getId()).isEqualTo(1L);
+        assertThat(replaced.getEmail()).isEqualTo("kalia.kumar@gmail.com");
+        assertThat(replaced.getVersion()).isEqualTo(1L);
+        assertThat(changeFeed.getLastSequence()).isEqualTo(1L);
+    }
+
+    //unconditional replace of a missing employee
+    @Test
+     void givenMissingEmployee_whenReplaceEmployee_thenReturnEmpty(){
+        //given or setup
+        given(employeeRepository.findForUpdateById(1L)).willReturn(Optional.empty());
+        //when action
+        Optional<EmployeeDTO> replaced = employeeService.replaceEmployee(1L, employee, null);
+        //then
+        assertThat(replaced).isEmpty();
+        verify(employeeRepository, never()).saveAndFlush(any());
+    }
+
+    //conditional replace against the version the row has moved past
+    @Test
+     void givenStaleVersion_whenReplaceEmployee_thenThrowsException(){
+        //given or setup
+        employee.setVersion(5L);
+        given(employeeRepository.findForUpdateById(1L)).willReturn(Optional.of(employee));
+        EmployeeDTO replacement = EmployeeDTO.builder()
+                .firstName("kalia")
+                .lastName("kumar")
+                .email("kalia.kumar@gmail.com")
+                .build();
+        //when action
+        org.junit.jupiter.api.Assertions.assertThrows(ObjectOptimisticLockingFailureException.class,
+                ()->{employeeService.replaceEmployee(1L, replacement, 4L);});
+        //then
+        assertThat(employee.getEmail()).isEqualTo("chuman.panda@gmail.com");
+        verify(employeeRepository, never()).saveAndFlush(any());
+    }
+
+    //conditional replace writes the names over the locked row and leaves createdAt alone
+    @Test
+     void givenCurrentVersion_whenReplaceEmployee_thenKeepCreatedAt(){
+        //given or setup
+        Instant createdAt = Instant.now().minus(Duration.ofDays(1)).truncatedTo(ChronoUnit.MICROS);
+        employee.setVersion(4L);
+        employee.setCreatedAt(createdAt);
+        given(employeeRepository.findForUpdateById(1L)).willReturn(Optional.of(employee));
+        given(employeeRepository.saveAndFlush(employee)).willAnswer(invocation -> {
+            employee.setVersion(employee.getVersion() + 1);
+            return employee;
+        });
+        //the request body carries no createdAt
+        EmployeeDTO replacement = EmployeeDTO.builder()
+                .firstName("kalia")
+                .lastName("kumar")
+                .email("kalia.kumar@gmail.com")
+                .build();
+        //when action
+        EmployeeDTO replaced = employeeService.replaceEmployee(1L, replacement, 4L).get();
+        //then
+        assertThat(replaced.getFirstName()).isEqualTo("kalia");
+        assertThat(replaced.getVersion()).isEqualTo(5L);
+        assertThat(replaced.getCreatedAt()).isEqualTo(createdAt);
+    }
+
+    //bulk save method with a missing name
+    @Test
+     void givenEmployeeWithoutName_whenSaveEmployees_thenReportInvalidItem(){
+        //given or setup
+        EmployeeDTO noLastName = EmployeeDTO.builder()
+                .firstName("Kalia")
+                .email("kalia.kumar@gmail.com")
+                .build();
+        given(employeeRepository.findExistingEmails(any())).willReturn(Collections.emptyList());
+        given(employeeBatchWriter.insertChunk(List.of(employee))).willReturn(List.of(employee));
+        //when action
+        List<BulkEmployeeResult> results = employeeService.saveEmployees(List.of(employee, noLastName));
+        //then
+        assertThat(results).extracting(BulkEmployeeResult::getStatus)
+                .containsExactly(BulkEmployeeResult.Status.CREATED, BulkEmployeeResult.Status.INVALID);
+        assertThat(results.get(1).getMessage()).isEqualTo("lastName is required");
+    }
+
+    //bulk save method with one bad row in a chunk
+    @Test
+     void givenChunkWithFailingRow_whenSaveEmployees_thenRetryRowsAlone(){
+        //given or setup
+        EmployeeDTO newEmployee = EmployeeDTO.builder()
+                .firstName("Kalia")
+                .lastName("kumar")
+                .email("kalia.kumar@gmail.com")
+                .build();
+        given(employeeRepository.findExistingEmails(any())).willReturn(Collections.emptyList());
+        given(employeeBatchWriter.insertChunk(List.of(employee, newEmployee)))
+                .willThrow(new org.springframework.dao.DataIntegrityViolationException("duplicate key"));
+        given(employeeBatchWriter.insertChunk(List.of(employee))).willAnswer(invocation -> {
+            employee.setId(3L);
+            return List.of(employee);
+        });
+        given(employeeBatchWriter.insertChunk(List.of(newEmployee)))
+                .willThrow(new org.springframework.dao.DataIntegrityViolationException("duplicate key"));
+        //when action
+        List<BulkEmployeeResult> results = employeeService.saveEmployees(List.of(employee, newEmployee));
+        //then
+        assertThat(results).extracting(BulkEmployeeResult::getStatus)
+                .containsExactly(BulkEmployeeResult.Status.CREATED, BulkEmployeeResult.Status.FAILED);
+        assertThat(results.get(0).getId()).isEqualTo(3L);
+    }
+
     //get all employee method
     @Test
     public void givenEmployeeList_whenGetAllEmployee_thenReturnAllEmployeeList(){
@@ -104,6 +373,50 @@ employeeRepository = Mockito.mock(EmployeeRepository.class);
         assertThat(employeeList.size()).isEqualTo(0);
     }
 
+    //keyset page method
+    @Test
+    public void givenMoreEmployeesThanLimit_whenGetEmployeePage_thenReturnNextCursor(){
+        //given or setup
+        EmployeeSummary chuman = EmployeeSummary.of(employee);
+        EmployeeSummary kalia = new EmployeeSummary(2L, "Kalia", "kumar", "kalia.kumar@gmail.com", 0L);
+        given(employeeRepository.findSummariesAfter(0L, PageRequest.of(0, 2)))
+                .willReturn(List.of(chuman, kalia));
+        //when action
+        EmployeePage page = employeeService.getEmployeePage(0L, 1);
+        //then
+        assertThat(page.getContent()).containsExactly(chuman);
+        assertThat(page.getNextCursor()).isEqualTo(1L);
+    }
+
+    //keyset page method last page
+    @Test
+    public void givenLastPage_whenGetEmployeePage_thenReturnNoCursor(){
+        //given or setup
+        EmployeeSummary chuman = EmployeeSummary.of(employee);
+        given(employeeRepository.findSummariesAfter(0L, PageRequest.of(0, 11)))
+                .willReturn(List.of(chuman));
+        //when action
+        EmployeePage page = employeeService.getEmployeePage(0L, 10);
+        //then
+        assertThat(page.getContent()).containsExactly(chuman);
+        assertThat(page.getNextCursor()).isNull();
+        verify(employeeRepository, never()).findById(anyLong());
+    }
+
+    //export method streams projections
+    @Test
+    public void givenEmployeeStream_whenExportEmployees_thenConsumeEach(){
+        //given or setup
+        EmployeeSummary chuman = EmployeeSummary.of(employee);
+        EmployeeSummary kalia = new EmployeeSummary(2L, "Kalia", "kumar", "kalia.kumar@gmail.com", 0L);
+        given(employeeRepository.streamAllSummaries()).willReturn(Stream.of(chuman, kalia));
+        List<EmployeeSummary> exported = new ArrayList<>();
+        //when action
+        employeeService.exportEmployees(exported::add);
+        //then
+        assertThat(exported).containsExactly(chuman, kalia);
+    }
+
     //get  employee by id method
     @Test
     public void givenEmployeeId_whenGetEmployeeById_thenReturnEmployeeObject(){
@@ -114,6 +427,18 @@ employeeRepository = Mockito.mock(EmployeeRepository.class);
         //then
         assertThat(savedEmployee).isNotNull();
     }
+    //get employee summary by id method
+    @Test
+    public void givenEmployeeId_whenGetEmployeeSummary_thenReturnProjection(){
+        //given or setup
+        given(employeeRepository.findSummaryById(1L)).willReturn(Optional.of(EmployeeSummary.of(employee)));
+        //when action
+        EmployeeSummary summary = employeeService.getEmployeeSummary(1L).get();
+        //then
+        assertThat(summary.getEmail()).isEqualTo(employee.getEmail());
+        verify(employeeRepository, never()).findById(anyLong());
+    }
+
     //update employee method
     @Test
     public void givenEmployeeObject_whenUpdateEmployee_thenReturnUpdateedEmployee(){
@@ -128,6 +453,235 @@ employeeRepository = Mockito.mock(EmployeeRepository.class);
         assertThat(updateEmployee.getFirstName()).isEqualTo("kalia");
     }
 
+    //update employee method with a detached copy that does not carry createdAt
+    @Test
+    public void givenEmployeeWithoutCreatedAt_whenUpdateEmployee_thenCarryCreatedAtOver(){
+        //given or setup
+        Instant createdAt = Instant.now().minus(Duration.ofDays(1)).truncatedTo(ChronoUnit.MICROS);
+        EmployeeDTO stored = EmployeeDTO.builder().id(1L)
+                .firstName("chuman")
+                .lastName("panda")
+                .email("chuman.panda@gmail.com")
+                .createdAt(createdAt)
+                .build();
+        given(employeeRepository.findById(1L)).willReturn(Optional.of(stored));
+        given(employeeRepository.save(employee)).willReturn(employee);
+        //when action
+        EmployeeDTO updateEmployee = employeeService.updateEmployee(employee);
+        //then
+        assertThat(updateEmployee.getCreatedAt()).isEqualTo(createdAt);
+    }
+
+    //patch employee method
+    @Test
+    public void givenPartialEmployee_whenPatchEmployee_thenSingleUpdateStatement(){
+        //given or setup
+        EmployeeDTO patch = EmployeeDTO.builder().firstName("kalia").build();
+        given(employeeRepository.patchEmployee(1L, "kalia", null, null, null)).willReturn(1);
+        //when action
+        boolean patched = employeeService.patchEmployee(1L, patch, null);
+        //then
+        assertThat(patched).isTrue();
+        verify(employeeRepository, never()).findById(anyLong());
+        verify(employeeRepository, never()).save(any(EmployeeDTO.class));
+    }
+
+    //patch employee method -ve test
+    @Test
+    public void givenUnknownId_whenPatchEmployee_thenReturnFalse(){
+        //given or setup
+        EmployeeDTO patch = EmployeeDTO.builder().firstName("kalia").build();
+        given(employeeRepository.patchEmployee(9L, "kalia", null, null, null)).willReturn(0);
+        //when action
+        boolean patched = employeeService.patchEmployee(9L, patch, null);
+        //then
+        assertThat(patched).isFalse();
+    }
+
+    //patch employee method with an expected version
+    @Test
+    public void givenStaleVersion_whenPatchEmployee_thenReturnFalse(){
+        //given or setup
+        EmployeeDTO patch = EmployeeDTO.builder().firstName("kalia").build();
+        given(employeeRepository.patchEmployee(1L, "kalia", null, null, 4L)).willReturn(0);
+        //when action
+        boolean patched = employeeService.patchEmployee(1L, patch, 4L);
+        //then
+        assertThat(patched).isFalse();
+    }
+
+    //keyset page version bounded by the last id on the page
+    @Test
+    public void givenMoreEmployeesThanLimit_whenGetEmployeePageVersion_thenAggregateUpToLastId(){
+        //given or setup
+        given(employeeRepository.findIdsAfter(eq(0L), any(Pageable.class))).willReturn(List.of(1L, 2L, 3L));
+        given(employeeRepository.findCollectionVersion(0L, 2L)).willReturn(new EmployeeCollectionVersion(2L, 5L, 2L));
+        //when action
+        EmployeeCollectionVersion version = employeeService.getEmployeePageVersion(0L, 2);
+        //then
+        assertThat(version.getCount()).isEqualTo(2L);
+        assertThat(version.getVersionSum()).isEqualTo(5L);
+        assertThat(version.isHasNext()).isTrue();
+    }
+
+    //versioned delete method
+    @Test
+    public void givenStaleVersion_whenDeleteEmployee_thenReturnFalse(){
+        //given or setup
+        given(employeeRepository.deleteByIdAndVersion(1L, 4L)).willReturn(0);
+        //when action
+        boolean deleted = employeeService.deleteEmployee(1L, 4L);
+        //then
+        assertThat(deleted).isFalse();
+        verify(employeeRepository, never()).deleteById(anyLong());
+    }
+
+    //search before the index is warm
+    @Test
+    public void givenColdSearchIndex_whenSearchEmployees_thenQueryDatabaseWithEscapedPrefix(){
+        //given or setup
+        EmployeeSummary chuman = new EmployeeSummary(1L, "chuman", "panda", "chuman.panda@gmail.com", 0L);
+        given(employeeRepository.searchByPrefix(eq("chu!_%"), any(Pageable.class))).willReturn(List.of(chuman));
+        //when action
+        EmployeeSearchPage page = employeeService.searchEmployees(" CHU_ ", 0, 20);
+        //then
+        assertThat(page.getContent()).containsExactly(chuman);
+        assertThat(page.getNextOffset()).isNull();
+    }
+
+    //search once the index is warm never touches the database
+    @Test
+    public void givenWarmSearchIndex_whenSaveAndSearchEmployees_thenAnsweredFromIndex(){
+        //given or setup
+        given(employeeRepository.streamAllSummaries()).willReturn(Stream.empty());
+        searchIndex.warm();
+        given(employeeRepository.findByEmail(employee.getEmail())).willReturn(Optional.empty());
+        given(employeeRepository.save(employee)).willReturn(employee);
+        employeeService.saveEmployee(employee);
+        //when action
+        EmployeeSearchPage page = employeeService.searchEmployees("pan", 0, 20);
+        //then
+        assertThat(page.getContent()).extracting(EmployeeSummary::getId).containsExactly(1L);
+        verify(employeeRepository, never()).searchByPrefix(anyString(), any(Pageable.class));
+    }
+
+    //native finder results are dropped on every write
+    @Test
+    public void givenEmployeeObject_whenUpdateAndDelete_thenEvictNativeQueryRegion(){
+        //given or setup
+        given(employeeRepository.save(employee)).willReturn(employee);
+        //when action
+        employeeService.updateEmployee(employee);
+        employeeService.deleteEmployee(employee.getId());
+        //then
+        verify(queryCache, times(2)).evictNativeQueries();
+    }
+
+    //every successful write lands on the change feed in order
+    @Test
+    public void givenEmployeeWrites_whenSaveUpdatePatchDelete_thenPublishChanges(){
+        //given or setup
+        given(employeeRepository.findByEmail(employee.getEmail())).willReturn(Optional.empty());
+        given(employeeRepository.save(employee)).willReturn(employee);
+        given(employeeRepository.patchEmployee(1L, "kalia", null, null, null)).willReturn(1);
+        //when action
+        employeeService.saveEmployee(employee);
+        employeeService.updateEmployee(employee);
+        employeeService.patchEmployee(1L, EmployeeDTO.builder().firstName("kalia").build(), null);
+        employeeService.deleteEmployee(1L);
+        //then
+        List<EmployeeChange> changes = changeFeed.readAfter(0L, 10);
+        assertThat(changes).extracting(EmployeeChange::getType).containsExactly(EmployeeChange.Type.CREATED,
+                EmployeeChange.Type.UPDATED, EmployeeChange.Type.UPDATED, EmployeeChange.Type.DELETED);
+        assertThat(changes).extracting(EmployeeChange::getEmployeeId).containsOnly(1L);
+        assertThat(changes.get(0).getEmployee().getEmail()).isEqualTo("chuman.panda@gmail.com");
+    }
+
+    //a write that touched no row is not a change
+    @Test
+    public void givenStaleVersion_whenDeleteEmployee_thenNothingPublished(){
+        //given or setup
+        given(employeeRepository.deleteByIdAndVersion(1L, 4L)).willReturn(0);
+        //when action
+        employeeService.deleteEmployee(1L, 4L);
+        //then
+        assertThat(changeFeed.getLastSequence()).isZero();
+    }
+
+    //delta sync merges rows and tombstones in write order
+    @Test
+    public void givenRowsAndTombstones_whenGetEmployeeChanges_thenMergedInWriteOrder(){
+        //given or setup
+        Instant since = Instant.now().minusSeconds(60).truncatedTo(ChronoUnit.MICROS);
+        EmployeeWatermark watermark = new EmployeeWatermark(since, 5L, Instant.now().minusSeconds(30));
+        given(employeeRepository.findChangedSince(eq(since), eq(5L), any(Instant.class), any(Pageable.class)))
+                .willReturn(List.of(revision(1L, since.plusSeconds(1)), revision(3L, since.plusSeconds(3))));
+        given(tombstoneRepository.findDeletedSince(eq(since), eq(5L), any(Instant.class), any(Pageable.class)))
+                .willReturn(List.of(new EmployeeRevision(2L, since.plusSeconds(2))));
+        //when action
+        EmployeeDelta delta = employeeService.getEmployeeChanges(watermark, 10).get();
+        //then
+        assertThat(delta.getChanges()).extracting(EmployeeRevision::getId).containsExactly(1L, 2L, 3L);
+        assertThat(delta.getChanges()).extracting(EmployeeRevision::isDeleted).containsExactly(false, true, false);
+        assertThat(delta.isHasMore()).isFalse();
+        assertThat(EmployeeWatermark.parse(delta.getWatermark()).getId()).isEqualTo(Long.MAX_VALUE);
+    }
+
+    //a full page ends the watermark at its last entry
+    @Test
+    public void givenMoreChangesThanLimit_whenGetEmployeeChanges_thenWatermarkAtLastEntry(){
+        //given or setup
+        Instant since = Instant.now().minusSeconds(60).truncatedTo(ChronoUnit.MICROS);
+        EmployeeWatermark watermark = new EmployeeWatermark(since, 0L, Instant.now().minusSeconds(30));
+        given(employeeRepository.findChangedSince(eq(since), eq(0L), any(Instant.class), any(Pageable.class)))
+                .willReturn(List.of(revision(1L, since.plusSeconds(1)), revision(3L, since.plusSeconds(3))));
+        given(tombstoneRepository.findDeletedSince(eq(since), eq(0L), any(Instant.class), any(Pageable.class)))
+                .willReturn(List.of(new EmployeeRevision(2L, since.plusSeconds(2))));
+        //when action
+        EmployeeDelta delta = employeeService.getEmployeeChanges(watermark, 2).get();
+        //then
+        assertThat(delta.getChanges()).extracting(EmployeeRevision::getId).containsExactly(1L, 2L);
+        assertThat(delta.isHasMore()).isTrue();
+        EmployeeWatermark next = EmployeeWatermark.parse(delta.getWatermark());
+        assertThat(next.getTime()).isEqualTo(since.plusSeconds(2));
+        assertThat(next.getId()).isEqualTo(2L);
+    }
+
+    //a full sync has nothing to delete
+    @Test
+    public void givenInitialWatermark_whenGetEmployeeChanges_thenTombstonesNotRead(){
+        //given or setup
+        given(employeeRepository.findChangedSince(eq(Instant.EPOCH), eq(0L), any(Instant.class), any(Pageable.class)))
+                .willReturn(List.of(revision(1L, Instant.now().minusSeconds(1))));
+        //when action
+        EmployeeDelta delta = employeeService.getEmployeeChanges(EmployeeWatermark.INITIAL, 10).get();
+        //then
+        assertThat(delta.getChanges()).hasSize(1);
+        verify(tombstoneRepository, never()).findDeletedSince(any(), anyLong(), any(), any());
+    }
+
+    //deletes older than the retention may be purged already
+    @Test
+    public void givenWatermarkOlderThanRetention_whenGetEmployeeChanges_thenReturnEmpty(){
+        //given or setup
+        Instant issuedAt = Instant.now().minus(Duration.ofDays(31));
+        EmployeeWatermark watermark = new EmployeeWatermark(issuedAt, 0L, issuedAt);
+        //when action
+        Optional<EmployeeDelta> delta = employeeService.getEmployeeChanges(watermark, 10);
+        //then
+        assertThat(delta).isEmpty();
+        verify(employeeRepository, never()).findChangedSince(any(), anyLong(), any(), any());
+    }
+
+    //a delete leaves a tombstone for delta sync
+    @Test
+    public void givenEmployeeId_whenDeleteEmployee_thenRecordTombstone(){
+        //when action
+        employeeService.deleteEmployee(1L);
+        //then
+        verify(tombstoneRepository, times(1)).save(argThat((EmployeeTombstone tombstone) -> tombstone.getEmployeeId() == 1L));
+    }
+
     //delete employee method
     @Test
     public void givenEmployeeId_whenDeleteEmployee_thenNothing(){
@@ -140,4 +694,8 @@ employeeRepository = Mockito.mock(EmployeeRepository.class);
         //then
        verify(employeeRepository, times(1)).deleteById(employeeId);
     }
+
+    private static EmployeeRevision revision(long id, Instant updatedAt){
+        return new EmployeeRevision(id, "chuman", "panda", "chuman" + id + "@gmail.com", 0L, updatedAt);
+    }
 }
@@ -0,0 +1,57 @@
+package com.chuman.service.impl;
+
+import com.chuman.repository.EmployeeRepository;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+
+class EmailIndexTests {
+
+    private final EmployeeRepository employeeRepository = Mockito.mock(EmployeeRepository.class);
+
+    @Test
+    void givenColdIndex_whenMightContain_thenAlwaysMaybe(){
+        EmailIndex emailIndex = new EmailIndex(employeeRepository, true, 1000, 0.01);
+
+        assertThat(emailIndex.isWarmed()).isFalse();
+        assertThat(emailIndex.mightContain("chuman.panda@gmail.com")).isTrue();
+    }
+
+    @Test
+    void givenWarmIndex_whenMightContain_thenNoFalseNegativesAndIgnoresCase(){
+        given(employeeRepository.streamAllEmails())
+                .willReturn(IntStream.range(0, 1000).mapToObj(i -> "employee" + i + "@gmail.com"));
+        EmailIndex emailIndex = new EmailIndex(employeeRepository, true, 1000, 0.01);
+        emailIndex.warm();
+
+        IntStream.range(0, 1000).forEach(i ->
+                assertThat(emailIndex.mightContain("Employee" + i + "@GMAIL.com")).isTrue());
+    }
+
+    @Test
+    void givenWarmIndex_whenMightContainUnknownEmails_thenFalsePositiveRateStaysNearTarget(){
+        given(employeeRepository.streamAllEmails())
+                .willReturn(IntStream.range(0, 10000).mapToObj(i -> "employee" + i + "@gmail.com"));
+        EmailIndex emailIndex = new EmailIndex(employeeRepository, true, 10000, 0.01);
+        emailIndex.warm();
+
+        long falsePositives = IntStream.range(0, 10000)
+                .filter(i -> emailIndex.mightContain("someone" + i + "@yahoo.com"))
+                .count();
+        assertThat(falsePositives).isLessThan(300);
+    }
+
+    @Test
+    void givenDisabledIndex_whenMightContain_thenAlwaysMaybe(){
+        given(employeeRepository.streamAllEmails()).willReturn(Stream.empty());
+        EmailIndex emailIndex = new EmailIndex(employeeRepository, false, 1000, 0.01);
+        emailIndex.warm();
+
+        assertThat(emailIndex.mightContain("chuman.panda@gmail.com")).isTrue();
+    }
+}
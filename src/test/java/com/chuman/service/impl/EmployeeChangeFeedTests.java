@@ -0,0 +1,74 @@
+package com.chuman.service.impl;
+
+import com.chuman.model.EmployeeChange;
+import com.chuman.model.EmployeeSummary;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EmployeeChangeFeedTests {
+
+    @Test
+    void givenPublishedChanges_whenReadAfter_thenChangesInSequenceOrder(){
+        EmployeeChangeFeed feed = new EmployeeChangeFeed(10);
+        feed.created(summary(1L));
+        feed.patched(1L);
+        feed.deleted(1L);
+
+        List<EmployeeChange> changes = feed.readAfter(1L, 10);
+
+        assertThat(changes).extracting(EmployeeChange::getSequence).containsExactly(2L, 3L);
+        assertThat(changes).extracting(EmployeeChange::getType)
+                .containsExactly(EmployeeChange.Type.UPDATED, EmployeeChange.Type.DELETED);
+        assertThat(feed.readAfter(3L, 10)).isEmpty();
+    }
+
+    @Test
+    void givenReaderLappedByWriters_whenReadAfter_thenNull(){
+        EmployeeChangeFeed feed = new EmployeeChangeFeed(4);
+        for (long id = 1; id <= 6; id++) {
+            feed.created(summary(id));
+        }
+
+        assertThat(feed.getFirstSequence()).isEqualTo(3L);
+        assertThat(feed.readAfter(1L, 10)).isNull();
+        assertThat(feed.readAfter(2L, 10)).extracting(EmployeeChange::getEmployeeId).containsExactly(3L, 4L, 5L, 6L);
+    }
+
+    @Test
+    void givenListener_whenPublish_thenCalledOncePerChange(){
+        EmployeeChangeFeed feed = new EmployeeChangeFeed(10);
+        AtomicInteger calls = new AtomicInteger();
+        feed.addListener(calls::incrementAndGet);
+
+        feed.created(summary(1L));
+        feed.updated(summary(1L));
+
+        assertThat(calls).hasValue(2);
+    }
+
+    @Test
+    void givenActiveTransaction_whenPublish_thenVisibleOnlyAfterCommit(){
+        EmployeeChangeFeed feed = new EmployeeChangeFeed(10);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            feed.created(summary(1L));
+            assertThat(feed.getLastSequence()).isZero();
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertThat(feed.getLastSequence()).isEqualTo(1L);
+    }
+
+    private static EmployeeSummary summary(long id){
+        return new EmployeeSummary(id, "chuman", "panda", "chuman" + id + "@gmail.com", 0L);
+    }
+}
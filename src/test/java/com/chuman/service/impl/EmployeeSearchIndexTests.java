@@ -0,0 +1,108 @@
+package com.chuman.service.impl;
+
+import com.chuman.model.EmployeeSearchPage;
+import com.chuman.model.EmployeeSummary;
+import com.chuman.repository.EmployeeRepository;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+
+class EmployeeSearchIndexTests {
+
+    private final EmployeeRepository employeeRepository = Mockito.mock(EmployeeRepository.class);
+
+    @Test
+    void givenWarmIndex_whenSearchPrefix_thenMatchNamesAndEmailsOnce(){
+        given(employeeRepository.streamAllSummaries()).willReturn(Stream.of(
+                new EmployeeSummary(1L, "Chuman", "Panda", "chuman.panda@gmail.com", 0L),
+                new EmployeeSummary(2L, "Kalia", "Chu", "kalia@gmail.com", 0L),
+                new EmployeeSummary(3L, "Ramesh", "Kumar", "ramesh@gmail.com", 0L)));
+        EmployeeSearchIndex searchIndex = new EmployeeSearchIndex(employeeRepository, true);
+        searchIndex.warm();
+
+        EmployeeSearchPage page = searchIndex.search("CHU", 0, 10);
+
+        //chuman matches on first name and email but is returned once
+        assertThat(page.getContent()).extracting(EmployeeSummary::getId).containsExactly(2L, 1L);
+        assertThat(page.getNextOffset()).isNull();
+    }
+
+    @Test
+    void givenQueryWithSpace_whenSearch_thenMatchFullName(){
+        given(employeeRepository.streamAllSummaries()).willReturn(Stream.of(
+                new EmployeeSummary(1L, "Chuman", "Panda", "chuman.panda@gmail.com", 0L),
+                new EmployeeSummary(2L, "Chuman", "Kumar", "chuman.kumar@gmail.com", 0L)));
+        EmployeeSearchIndex searchIndex = new EmployeeSearchIndex(employeeRepository, true);
+        searchIndex.warm();
+
+        assertThat(searchIndex.search("chuman ku", 0, 10).getContent())
+                .extracting(EmployeeSummary::getId).containsExactly(2L);
+    }
+
+    @Test
+    void givenManyMatches_whenSearchPages_thenEveryEmployeeOnce(){
+        given(employeeRepository.streamAllSummaries()).willReturn(IntStream.range(0, 25).mapToObj(i ->
+                new EmployeeSummary(i, "emp" + i, "last", "emp" + i + "@gmail.com", 0L)));
+        EmployeeSearchIndex searchIndex = new EmployeeSearchIndex(employeeRepository, true);
+        searchIndex.warm();
+
+        EmployeeSearchPage first = searchIndex.search("emp", 0, 10);
+        EmployeeSearchPage second = searchIndex.search("emp", first.getNextOffset(), 10);
+        EmployeeSearchPage last = searchIndex.search("emp", second.getNextOffset(), 10);
+
+        assertThat(first.getNextOffset()).isEqualTo(10);
+        assertThat(last.getContent()).hasSize(5);
+        assertThat(last.getNextOffset()).isNull();
+        assertThat(Stream.of(first, second, last).flatMap(page -> page.getContent().stream()).map(EmployeeSummary::getId).distinct())
+                .hasSize(25);
+    }
+
+    @Test
+    void givenIndexedEmployee_whenUpdatePatchAndRemove_thenOldTermsStopMatching(){
+        given(employeeRepository.streamAllSummaries()).willReturn(Stream.of(
+                new EmployeeSummary(1L, "chuman", "panda", "chuman.panda@gmail.com", 0L)));
+        EmployeeSearchIndex searchIndex = new EmployeeSearchIndex(employeeRepository, true);
+        searchIndex.warm();
+
+        searchIndex.put(new EmployeeSummary(1L, "kalia", "panda", "kalia.panda@gmail.com", 1L));
+        assertThat(searchIndex.search("chu", 0, 10).getContent()).isEmpty();
+        assertThat(searchIndex.search("kal", 0, 10).getContent()).hasSize(1);
+
+        searchIndex.patch(1L, null, "kumar", null);
+        assertThat(searchIndex.search("pan", 0, 10).getContent()).isEmpty();
+        assertThat(searchIndex.search("kum", 0, 10).getContent().get(0).getFirstName()).isEqualTo("kalia");
+
+        searchIndex.remove(1L);
+        assertThat(searchIndex.search("kal", 0, 10).getContent()).isEmpty();
+        assertThat(searchIndex.size()).isZero();
+    }
+
+    @Test
+    void givenStaleVersion_whenPut_thenNewerEntryIsKept(){
+        EmployeeSearchIndex searchIndex = new EmployeeSearchIndex(employeeRepository, true);
+        searchIndex.put(new EmployeeSummary(1L, "kalia", "kumar", "kalia@gmail.com", 2L));
+
+        searchIndex.put(new EmployeeSummary(1L, "chuman", "panda", "chuman@gmail.com", 1L));
+
+        assertThat(searchIndex.search("kal", 0, 10).getContent()).hasSize(1);
+        assertThat(searchIndex.search("chu", 0, 10).getContent()).isEmpty();
+    }
+
+    @Test
+    void givenDeleteBeforeWarmUp_whenWarm_thenDeletedRowIsNotIndexed(){
+        given(employeeRepository.streamAllSummaries()).willReturn(Stream.of(
+                new EmployeeSummary(1L, "chuman", "panda", "chuman.panda@gmail.com", 0L)));
+        EmployeeSearchIndex searchIndex = new EmployeeSearchIndex(employeeRepository, true);
+
+        searchIndex.remove(1L);
+        searchIndex.warm();
+
+        assertThat(searchIndex.isWarmed()).isTrue();
+        assertThat(searchIndex.search("chu", 0, 10).getContent()).isEmpty();
+    }
+}
@@ -0,0 +1,127 @@
+package com.chuman.service.impl;
+
+import com.chuman.exception.ResourceNotFoundException;
+import com.chuman.model.BulkEmployeeResult;
+import com.chuman.model.EmployeeDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class GroupCommitEmployeeServiceTests {
+
+    private final EmployeeServiceImpl delegate = Mockito.mock(EmployeeServiceImpl.class);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final AtomicLong ids = new AtomicLong();
+
+    private final ExecutorService callers = Executors.newFixedThreadPool(20);
+
+    private GroupCommitEmployeeService groupCommit;
+
+    @BeforeEach
+    public void setup(){
+        //taken emails are duplicates, everything else is created with the next id
+        given(delegate.saveEmployees(ArgumentMatchers.anyList())).willAnswer(invocation -> {
+            List<EmployeeDTO> employees = invocation.getArgument(0);
+            List<BulkEmployeeResult> results = new ArrayList<>();
+            for (int i = 0; i < employees.size(); i++) {
+                String email = employees.get(i).getEmail();
+                results.add(email.startsWith("taken")
+                        ? new BulkEmployeeResult(i, email, BulkEmployeeResult.Status.DUPLICATE, null, "Employee already exit with given email")
+                        : new BulkEmployeeResult(i, email, BulkEmployeeResult.Status.CREATED, ids.incrementAndGet(), null));
+            }
+            return results;
+        });
+        groupCommit = new GroupCommitEmployeeService(delegate, meterRegistry, 100, 200, 1000, 5000);
+        groupCommit.start();
+    }
+
+    @AfterEach
+    public void tearDown() throws InterruptedException {
+        groupCommit.stop();
+        callers.shutdownNow();
+    }
+
+    @Test
+    void givenConcurrentCreates_whenSaveEmployee_thenOneCommitAndEachCallerGetsItsId() throws Exception {
+        //given or setup
+        CountDownLatch start = new CountDownLatch(1);
+        List<CompletableFuture<EmployeeDTO>> saved = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            EmployeeDTO employee = employee("employee" + i + "@gmail.com");
+            saved.add(CompletableFuture.supplyAsync(() -> {
+                awaitQuietly(start);
+                return groupCommit.saveEmployee(employee);
+            }, callers));
+        }
+        //when action
+        start.countDown();
+        //then
+        List<Long> savedIds = new ArrayList<>();
+        for (CompletableFuture<EmployeeDTO> future : saved) {
+            savedIds.add(future.get().getId());
+        }
+        assertThat(savedIds).doesNotContain(0L).doesNotHaveDuplicates();
+        assertThat(meterRegistry.counter("employee.group-commit.commits").count()).isLessThan(20);
+        verify(delegate, never()).saveEmployee(ArgumentMatchers.any());
+    }
+
+    @Test
+    void givenTakenEmailInGroup_whenSaveEmployee_thenOnlyThatCallerFails() throws Exception {
+        //given or setup
+        CompletableFuture<EmployeeDTO> taken = CompletableFuture.supplyAsync(
+                () -> groupCommit.saveEmployee(employee("taken@gmail.com")), callers);
+        CompletableFuture<EmployeeDTO> fresh = CompletableFuture.supplyAsync(
+                () -> groupCommit.saveEmployee(employee("fresh@gmail.com")), callers);
+        //then
+        assertThat(fresh.get().getId()).isPositive();
+        assertThatThrownBy(taken::join).hasCauseInstanceOf(ResourceNotFoundException.class)
+                .hasMessageContaining("taken@gmail.com");
+    }
+
+    @Test
+    void givenFailedGroup_whenSaveEmployee_thenRetryAlone(){
+        //given or setup
+        EmployeeDTO employee = employee("chuman.panda@gmail.com");
+        given(delegate.saveEmployees(ArgumentMatchers.anyList())).willReturn(List.of(
+                new BulkEmployeeResult(0, employee.getEmail(), BulkEmployeeResult.Status.FAILED, null, "deadlock")));
+        given(delegate.saveEmployee(employee)).willAnswer(invocation -> {
+            employee.setId(42L);
+            return employee;
+        });
+        //when action
+        EmployeeDTO saved = groupCommit.saveEmployee(employee);
+        //then
+        assertThat(saved.getId()).isEqualTo(42L);
+    }
+
+    private static EmployeeDTO employee(String email){
+        return EmployeeDTO.builder().firstName("chuman").lastName("panda").email(email).build();
+    }
+
+    private static void awaitQuietly(CountDownLatch latch){
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}